@@ -0,0 +1,28 @@
+package benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/*
+ * Runs every benchmark in this package with the GC profiler, which adds allocation rate
+ * (gc.alloc.rate.norm, bytes per operation) next to each timing. An optional argument
+ * narrows the run to benchmarks matching a regular expression.
+ *
+ * bench/pom.xml builds it with the JMH jars and the project's src classes into one jar:
+ *   mvn -f bench/pom.xml package
+ *   java -cp bench/target/benchmarks.jar benchmarks.BenchmarkRunner [regex]
+ */
+public class BenchmarkRunner {
+
+	public static void main(String[] args) throws RunnerException {
+		String include = args.length > 0 ? args[0] : "benchmarks\\..*";
+		Options options = new OptionsBuilder()
+				.include(include)
+				.addProfiler(GCProfiler.class)
+				.build();
+		new Runner(options).run();
+	}
+}
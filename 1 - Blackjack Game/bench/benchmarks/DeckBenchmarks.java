@@ -0,0 +1,98 @@
+package benchmarks;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import deckOfCards.*;
+
+/*
+ * Deck and shoe construction, shuffling and dealing.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DeckBenchmarks {
+
+	private Random random;
+	private SplittableRandom splittable;
+	private Deck deck;
+	private Shoe shoe;
+
+	@Setup
+	public void setup() {
+		random = new Random(132);
+		splittable = new SplittableRandom(132);
+		deck = new Deck();
+		shoe = new Shoe(6, 0.75);
+		shoe.shuffle(splittable);
+	}
+
+	@Benchmark
+	public Deck newDeck() {
+		return new Deck();
+	}
+
+	@Benchmark
+	public Deck shuffleDeck() {
+		deck.shuffle(random);
+		return deck;
+	}
+
+	/*
+	 * A fresh shuffled deck, what the GUI sets up for every round; dealWholeDeck times the dealing.
+	 */
+	@Benchmark
+	public Deck newShuffledDeck() {
+		Deck d = new Deck();
+		d.shuffle(random);
+		return d;
+	}
+
+	/*
+	 * A deck that has not been dealt from yet, rebuilt outside the measurement before every
+	 * invocation. The per-invocation setup costs a timestamp or two, spread here over 52 cards.
+	 */
+	@State(Scope.Thread)
+	public static class FreshDeck {
+		private final Random random = new Random(132);
+		Deck deck;
+
+		@Setup(Level.Invocation)
+		public void shuffle() {
+			deck = new Deck();
+			deck.shuffle(random);
+		}
+	}
+
+	/*
+	 * Dealing a shuffled deck out completely, per card, without its construction and shuffle.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(Card.NUM_CARDS)
+	public void dealWholeDeck(FreshDeck fresh, Blackhole bh) {
+		Deck d = fresh.deck;
+		for (int i = 0; i < Card.NUM_CARDS; i++) {
+			bh.consume(d.dealOneCard());
+		}
+	}
+
+	@Benchmark
+	public void shuffleSixDeckShoe() {
+		shoe.shuffle(splittable);
+	}
+
+	@Benchmark
+	public Card dealFromShoe() {
+		if (shoe.cardsRemaining() == 0) {
+			shoe.shuffle(splittable);
+		}
+		return shoe.dealOneCard();
+	}
+}
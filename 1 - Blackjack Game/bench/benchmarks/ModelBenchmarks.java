@@ -0,0 +1,111 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import blackjack.*;
+import deckOfCards.*;
+
+/*
+ * Hand evaluation in BlackjackModel over a realistic mix of hands: HANDS rounds are dealt from
+ * a shuffled six deck shoe, the player hitting to 17 like the dealer, so the mix has the usual
+ * share of naturals, soft hands and busts. Every call moves on to the next hand of the mix.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class ModelBenchmarks {
+
+	private static final int HANDS = 1024;
+
+	private final ArrayList<ArrayList<Card>> hands = new ArrayList<>();
+	private final BlackjackModel[] finishedGames = new BlackjackModel[HANDS];
+	private final BlackjackModel[] dealerTurns = new BlackjackModel[HANDS];
+	private int next;
+
+	@Setup
+	public void setup() {
+		SplittableRandom random = new SplittableRandom(132);
+		Shoe shoe = new Shoe(6, 0.75);
+		shoe.shuffle(random);
+		BlackjackModel game = new BlackjackModel();
+		game.setShoe(shoe);
+		for (int i = 0; i < HANDS; i++) {
+			game.shuffleShoeIfNeeded(random);
+			game.initialDealerCards();
+			game.initialPlayerCards();
+
+			BlackjackModel dealerTurn = new BlackjackModel();
+			dealerTurn.setDealerCards(game.getDealerCards());
+			dealerTurns[i] = dealerTurn;
+
+			while (game.getPlayerHandState().assess() == HandAssessment.NORMAL
+					&& PlayerPolicy.MIMIC_DEALER.shouldTakeCard(game.getPlayerHandState().getBestTotal(),
+							game.getPlayerHandState().isSoft(), game.getDealerUpCard().getRank())) {
+				game.playerTakeCard();
+			}
+			while (game.dealerShouldTakeCard()) {
+				game.dealerTakeCard();
+			}
+			hands.add(game.getPlayerCards());
+			BlackjackModel finished = new BlackjackModel();
+			finished.setPublishSnapshots(true); // readSnapshot reads these like the GUI does
+			finished.setPlayerCards(game.getPlayerCards());
+			finished.setDealerCards(game.getDealerCards());
+			finishedGames[i] = finished;
+		}
+	}
+
+	private int nextIndex() {
+		next = (next + 1) & (HANDS - 1);
+		return next;
+	}
+
+	@Benchmark
+	public ArrayList<Integer> possibleHandValues() {
+		return BlackjackModel.possibleHandValues(hands.get(nextIndex()));
+	}
+
+	@Benchmark
+	public HandAssessment assessHand() {
+		return BlackjackModel.assessHand(hands.get(nextIndex()));
+	}
+
+	@Benchmark
+	public GameResult gameAssessment() {
+		return finishedGames[nextIndex()].gameAssessment();
+	}
+
+	@Benchmark
+	public boolean dealerShouldTakeCard() {
+		return dealerTurns[nextIndex()].dealerShouldTakeCard();
+	}
+
+	/*
+	 * The getters copy the hand on every call, this shows what that costs.
+	 */
+	@Benchmark
+	public void getHands(Blackhole bh) {
+		BlackjackModel game = finishedGames[nextIndex()];
+		bh.consume(game.getPlayerCards());
+		bh.consume(game.getDealerCards());
+	}
+
+	/*
+	 * What a repaint reads instead of the getters.
+	 */
+	@Benchmark
+	public void readSnapshot(Blackhole bh) {
+		ModelSnapshot snapshot = finishedGames[nextIndex()].getSnapshot();
+		bh.consume(snapshot.getPlayerHand().getCard(0));
+		bh.consume(snapshot.getDealerHand().getBestTotal());
+		bh.consume(snapshot.getResult());
+	}
+}
@@ -0,0 +1,140 @@
+package GUI;
+
+import java.awt.EventQueue;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.swing.Timer;
+
+/*
+ * Runs the GUI's timed game steps, such as each dealer card, one after another on the event 
+ * dispatch thread. All steps share one Swing timer, so no thread is created per step. With a 
+ * delay of zero the scheduler is in fast-forward mode: steps skip the timer and are queued 
+ * straight onto the event thread, so automated play runs through the same code as a person 
+ * clicking the buttons.
+ *
+ * At most one run of the next step is armed at a time (the timer, or a queued event in 
+ * fast-forward); it is only armed from schedule() when nothing is armed and after a step has 
+ * run. The getters may be called from any thread.
+ */
+public class AnimationScheduler {
+
+	private final Queue<Runnable> pending = new ConcurrentLinkedQueue<>();
+	private final Timer timer;
+	private volatile int delay;
+	private volatile long stepsRun; //only written on the event thread
+
+	//event thread only: whether the next step is armed, and which cancel() it was armed after
+	private boolean armed;
+	private int generation;
+	private int timerGeneration;
+
+	public AnimationScheduler(int delayMillis) {
+		if (delayMillis < 0) {
+			throw new IllegalArgumentException("delay must not be negative");
+		}
+		delay = delayMillis;
+		timer = new Timer(delayMillis, e -> runNext(timerGeneration));
+		timer.setRepeats(false);
+	}
+
+	/*
+	 * Queues a step to run on the event thread once the delay has passed after the previous step.
+	 * May be called from any thread.
+	 */
+	public void schedule(Runnable step) {
+		if (!EventQueue.isDispatchThread()) {
+			EventQueue.invokeLater(() -> schedule(step));
+			return;
+		}
+		pending.add(step);
+		if (!armed) {
+			arm();
+		}
+	}
+
+	/*
+	 * Drops every step that has not run yet.
+	 */
+	public void cancel() {
+		runOnDispatchThread(() -> {
+			pending.clear();
+			timer.stop();
+			generation++; // a run already queued in fast-forward is now stale
+			armed = false;
+		});
+	}
+
+	/*
+	 * Changes the delay between steps. Zero switches to fast-forward; a step already waiting 
+	 * keeps its old delay.
+	 */
+	public void setDelay(int delayMillis) {
+		if (delayMillis < 0) {
+			throw new IllegalArgumentException("delay must not be negative");
+		}
+		runOnDispatchThread(() -> {
+			delay = delayMillis;
+			timer.setInitialDelay(delayMillis);
+		});
+	}
+
+	public int getDelay() {
+		return delay;
+	}
+
+	public boolean isFastForward() {
+		return delay == 0;
+	}
+
+	public boolean isIdle() {
+		return pending.isEmpty();
+	}
+
+	/*
+	 * Number of steps run so far, for measuring throughput in fast-forward mode.
+	 */
+	public long getStepsRun() {
+		return stepsRun;
+	}
+
+	private void arm() {
+		armed = true;
+		int armedGeneration = generation;
+		if (delay == 0) {
+			// still go through the event queue, so repaints and input get a turn between steps
+			EventQueue.invokeLater(() -> runNext(armedGeneration));
+		} else {
+			timerGeneration = armedGeneration;
+			timer.restart();
+		}
+	}
+
+	private void runNext(int armedGeneration) {
+		if (armedGeneration != generation) {
+			return;
+		}
+		armed = false;
+		Runnable step = pending.poll();
+		if (step == null) {
+			return;
+		}
+		stepsRun++;
+		try {
+			step.run();
+		} finally {
+			// the step may have scheduled the next one itself, which armed it already
+			if (!armed && !pending.isEmpty()) {
+				arm();
+			}
+		}
+	}
+
+	private static void runOnDispatchThread(Runnable r) {
+		if (EventQueue.isDispatchThread()) {
+			r.run();
+		} else {
+			EventQueue.invokeLater(r);
+		}
+	}
+}
@@ -2,7 +2,10 @@ package GUI;
 import blackjack.*;
 import deckOfCards.*;
 
+import java.awt.AlphaComposite;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.Dimension;
 import java.awt.Font;
 import java.awt.Color;
@@ -11,9 +14,8 @@ import java.awt.event.ActionListener;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Random;
-import java.util.Timer;
-import java.util.TimerTask;
 import javax.swing.JButton;
 import javax.swing.JPanel;
 import javax.swing.JSlider;
@@ -24,11 +26,15 @@ import javax.swing.JFrame;
 
 public class BlackjackGUI extends JPanel {
 
+	/*
+	 * An optional argument sets the delay in milliseconds between dealer cards; 0 fast-forwards.
+	 */
 	public static void main(String[] args) {
+		int delay = args.length > 0 ? Integer.parseInt(args[0]) : TIMER_DELAY;
 		javax.swing.SwingUtilities.invokeLater(new Runnable() {
 			public void run() {
 				Thread.currentThread().setPriority(Thread.MAX_PRIORITY);		
-				new BlackjackGUI();
+				new BlackjackGUI(delay);
 			}
 		});	
 	}
@@ -64,6 +70,7 @@ public class BlackjackGUI extends JPanel {
 	private JSlider slider = new JSlider();
 
 	private BlackjackModel game;
+	private final AnimationScheduler animations;
 
 	private static final Color GREEN_FELT_COLOR = new Color(20, 160, 20);
 	private static final Color RED_COLOR = Color.ORANGE;
@@ -79,9 +86,29 @@ public class BlackjackGUI extends JPanel {
 
 	private Color textColor;
 
+	private SpriteAtlas atlas;
+	private BufferedImage backBuffer;
+	private final Region leftRegion = new Region(0, 0, LEFT_MARGIN, TABLE_HEIGHT);
+	private final Region dealerRegion = new Region(LEFT_MARGIN, 0, TABLE_WIDTH - LEFT_MARGIN, 
+			PLAYER_CARD_V_OFFSET - 40);
+	private final Region playerRegion = new Region(LEFT_MARGIN, PLAYER_CARD_V_OFFSET - 40, 
+			TABLE_WIDTH - LEFT_MARGIN, TABLE_HEIGHT - PLAYER_CARD_V_OFFSET + 40);
+	// the bet and chips the left region was last compared against, and how often they changed
+	private int[] drawnBet;
+	private int[] drawnChips;
+	private int chipsVersion;
+
 	public BlackjackGUI() {
+		this(TIMER_DELAY);
+	}
+
+	public BlackjackGUI(int animationDelay) {
+		animations = new AnimationScheduler(animationDelay);
 		greedyChipAllocation(STARTING_CHIPS);
+		ImageLoader.preloadDirectory("images");
+		atlas = new SpriteAtlas(spriteImageNames());
 		game = new BlackjackModel();
+		game.setPublishSnapshots(true);
 		setupWidgets();
 		attachListeners();
 		setupPanel();
@@ -154,8 +181,7 @@ public class BlackjackGUI extends JPanel {
 			@Override
 			public void actionPerformed(ActionEvent e) {
 				game.playerTakeCard();
-				ArrayList<Card> hand = game.getPlayerCards();
-				HandAssessment status = BlackjackModel.assessHand(hand);
+				HandAssessment status = game.getSnapshot().getPlayerHand().getAssessment();
 				repaint();
 				if (status == HandAssessment.BUST) {
 					gameMode = Mode.DEALER_TURN;
@@ -217,39 +243,46 @@ public class BlackjackGUI extends JPanel {
 		hitButton.setVisible(false);
 		stayButton.setVisible(false);
 		repaint();
-		new Timer().schedule(new DealerTask(), TIMER_DELAY);
+		animations.schedule(this::dealerStep);
 	}
 
-	private class DealerTask extends TimerTask {
-		@Override
-		public void run() {
-			if (game.dealerShouldTakeCard()) {
-				game.dealerTakeCard();
-				repaint();
-				new Timer().schedule(new DealerTask(), TIMER_DELAY);
-			} else {
-				gameMode = Mode.GAME_OVER;
-				nextHandButton.setVisible(true);
-				if (game.getDealerCards() != null && game.getPlayerCards() != null) {
-					GameResult result = game.gameAssessment();
-					if (result == GameResult.NATURAL_BLACKJACK) {
-						greedyChipAllocation((int)(getTotalValue(chips) + getTotalValue(bet) * 2.5));
-					} else if (result == GameResult.PLAYER_WON) {
-						for (int i = 0; i < 5; i++) {
-							chips[i] += 2 * bet[i];
-						}
-						reallocateIfNecessary();
-					} else if (result == GameResult.PUSH) {
-						for (int i = 0; i < 5; i ++) {
-							chips[i] += bet[i];
-						}
-						reallocateIfNecessary();
-					} else {  // lost money
-						reallocateIfNecessary();
+	/*
+	 * Changes the delay between dealer cards; 0 plays the dealer's turn as fast as possible.
+	 */
+	public void setAnimationDelay(int millis) {
+		animations.setDelay(millis);
+	}
+
+	/*
+	 * One timed step of the dealer's turn, run on the event thread by the animation scheduler.
+	 */
+	private void dealerStep() {
+		if (game.dealerShouldTakeCard()) {
+			game.dealerTakeCard();
+			repaint();
+			animations.schedule(this::dealerStep);
+		} else {
+			gameMode = Mode.GAME_OVER;
+			nextHandButton.setVisible(true);
+			GameResult result = game.getSnapshot().getResult();
+			if (result != null) {
+				if (result == GameResult.NATURAL_BLACKJACK) {
+					greedyChipAllocation((int)(getTotalValue(chips) + getTotalValue(bet) * 2.5));
+				} else if (result == GameResult.PLAYER_WON) {
+					for (int i = 0; i < 5; i++) {
+						chips[i] += 2 * bet[i];
+					}
+					reallocateIfNecessary();
+				} else if (result == GameResult.PUSH) {
+					for (int i = 0; i < 5; i ++) {
+						chips[i] += bet[i];
 					}
+					reallocateIfNecessary();
+				} else {  // lost money
+					reallocateIfNecessary();
 				}
-				repaint();
 			}
+			repaint();
 		}
 	}
 
@@ -273,55 +306,128 @@ public class BlackjackGUI extends JPanel {
 		slider.setValue(getBestSliderValue(chipTotal));
 	}
 
+	/*
+	 * The table is composited in an off-screen back buffer split into three regions: the 
+	 * bet and chip area on the left, the dealer's hand and the player's hand. A region is 
+	 * only drawn again when the state it shows has changed; otherwise a repaint is a 
+	 * single blit of the back buffer over the widgets.
+	 */
 	public void paint(Graphics g) {
 		super.paint(g);
+		if (game == null) {
+			return;
+		}
+		if (backBuffer == null) {
+			backBuffer = SpriteAtlas.createImage(TABLE_WIDTH, TABLE_HEIGHT);
+		}
+		ModelSnapshot snapshot = game.getSnapshot();
+		HandSnapshot dealerHand = gameMode == Mode.BETTING ? null : snapshot.getDealerHand();
+		HandSnapshot playerHand = gameMode == Mode.BETTING ? null : snapshot.getPlayerHand();
+		GameResult result = gameMode == Mode.GAME_OVER ? snapshot.getResult() : null;
+		Graphics2D bg = backBuffer.createGraphics();
+		try {
+			if (dealerRegion.changed(bg, gameMode, dealerHand)) {
+				paintDealer(bg, dealerHand);
+			}
+			if (playerRegion.changed(bg, playerHand)) {
+				paintPlayer(bg, playerHand);
+			}
+			if (!Arrays.equals(bet, drawnBet) || !Arrays.equals(chips, drawnChips)) {
+				drawnBet = bet.clone();
+				drawnChips = chips.clone();
+				chipsVersion++;
+			}
+			if (leftRegion.changed(bg, gameMode, result, playerHand, chipsVersion, getSliderValue())) {
+				paintBetAndChips(bg, result, playerHand);
+			}
+		} finally {
+			bg.dispose();
+		}
+		g.drawImage(backBuffer, 0, 0, this);
+	}
+
+	private void paintDealer(Graphics g, HandSnapshot dealerHand) {
 		g.setFont(NORMAL_FONT);
 		textColor = Color.BLACK;
+		if (dealerHand != null && dealerHand.size() > 0) {
+			String toDraw = "Dealer ";
+			if (gameMode == Mode.DEALER_TURN || gameMode == Mode.GAME_OVER) {
+				toDraw += getValuesString(dealerHand);
+			}
+			g.setColor(textColor);
+			g.drawString(toDraw, LEFT_MARGIN + 65, DEALER_CARD_V_OFFSET - 10);
+			boolean downCard = false;
+			if (gameMode == Mode.PLAYER_TURN) {
+				downCard =  true;
+			}
+			drawCards(g, dealerHand, downCard, DEALER_CARD_V_OFFSET);
+		}
+	}
+
+	private void paintPlayer(Graphics g, HandSnapshot playerHand) {
+		g.setFont(NORMAL_FONT);
+		if (playerHand != null && playerHand.size() > 0) {
+			String toDraw = getValuesString(playerHand);
+			g.setColor(textColor);
+			g.drawString(toDraw, LEFT_MARGIN + 70, PLAYER_CARD_V_OFFSET - 10);
+			drawCards(g, playerHand, false, PLAYER_CARD_V_OFFSET);
+		}
+	}
+
+	private void paintBetAndChips(Graphics g, GameResult result, HandSnapshot playerHand) {
+		g.setFont(NORMAL_FONT);
 		g.setColor(new Color(0, 110, 0));
 		g.fillOval(BET_MARGIN, 12, 188, 188);
 		g.setColor(Color.BLACK);
-		if (game != null) {
-			if (gameMode != Mode.BETTING) {
-				ArrayList<Card> dealerHand = game.getDealerCards();
-				ArrayList<Card> playerHand = game.getPlayerCards();
-				if (dealerHand != null && dealerHand.size() > 0) {
-					String toDraw = "Dealer ";
-					if (gameMode == Mode.DEALER_TURN || gameMode == Mode.GAME_OVER) {
-						toDraw += getValuesString(dealerHand);
-					}
-					g.setColor(textColor);
-					g.drawString(toDraw, LEFT_MARGIN + 65, DEALER_CARD_V_OFFSET - 10);
-					boolean downCard = false;
-					if (gameMode == Mode.PLAYER_TURN) {
-						downCard =  true;
-					}
-					drawCards(g, dealerHand, downCard, DEALER_CARD_V_OFFSET);
-				}
-
+		if (gameMode == Mode.GAME_OVER) {
+			if (result != null) {
+				// a push keeps the colour of the player's hand text, as it always has
+				textColor = Color.BLACK;
 				if (playerHand != null && playerHand.size() > 0) {
-					String toDraw = getValuesString(playerHand);
-					g.setColor(textColor);
-					g.drawString(toDraw, LEFT_MARGIN + 70, PLAYER_CARD_V_OFFSET - 10);
-					drawCards(g, playerHand, false, PLAYER_CARD_V_OFFSET);
-				}
-			}
-			if (gameMode == Mode.GAME_OVER) {
-				if (game.getDealerCards() != null && game.getPlayerCards() != null) {
-					GameResult result = game.gameAssessment();
-					g.setFont(LARGE_FONT);
-					String resultString = getGameResultString(result);
-					g.setColor(textColor);
-					g.drawString(resultString, BET_MARGIN + 20, 120);
-					g.setFont(NORMAL_FONT);
-					g.setColor(Color.BLACK);
+					getValuesString(playerHand);
 				}
-			} else {
-				drawBetChips(g);
+				g.setFont(LARGE_FONT);
+				String resultString = getGameResultString(result);
+				g.setColor(textColor);
+				g.drawString(resultString, BET_MARGIN + 20, 120);
 				g.setFont(NORMAL_FONT);
 				g.setColor(Color.BLACK);
-				g.drawString("Bet: $" + getSliderValue(), BET_MARGIN + 50, 155);
 			}
-			drawChips(g);
+		} else {
+			drawBetChips(g);
+			g.setFont(NORMAL_FONT);
+			g.setColor(Color.BLACK);
+			g.drawString("Bet: $" + getSliderValue(), BET_MARGIN + 50, 155);
+		}
+		drawChips(g);
+	}
+
+	/*
+	 * A rectangle of the back buffer together with the state it was last drawn from.
+	 */
+	private static class Region {
+		private final Rectangle bounds;
+		private List<Object> drawnState;
+
+		Region(int x, int y, int width, int height) {
+			bounds = new Rectangle(x, y, width, height);
+		}
+
+		/*
+		 * If state differs from what the region shows, clears the region, clips g to it and
+		 * returns true so the caller draws it again.
+		 */
+		boolean changed(Graphics2D g, Object... state) {
+			List<Object> current = Arrays.asList(state);
+			if (current.equals(drawnState)) {
+				return false;
+			}
+			drawnState = current;
+			g.setClip(bounds);
+			g.setComposite(AlphaComposite.Clear);
+			g.fill(bounds);
+			g.setComposite(AlphaComposite.SrcOver);
+			return true;
 		}
 	}
 
@@ -343,7 +449,7 @@ public class BlackjackGUI extends JPanel {
 	
 	private void drawBetChips(Graphics g) {
 		for (int i = 0; i < chipDenom.length; i++) {
-			drawChipStack(g, chipColor[i] + "ChipSmall.png", BET_MARGIN + 5 + i * 35, 100, 4, bet[i]);
+			drawChipStack(g, SMALL_CHIP_SPRITE + i, BET_MARGIN + 5 + i * 35, 100, 4, bet[i]);
 		}
 	}
 
@@ -391,7 +497,7 @@ public class BlackjackGUI extends JPanel {
 	private void drawChips(Graphics g) {
 		g.setFont(SMALL_FONT);
 		for (int i = 0; i < chipDenom.length; i++) {
-			drawChipStack(g, chipColor[i] + "Chip.png", CHIP_MARGIN + i * 50, TABLE_HEIGHT - 110, 6, chips[i]);
+			drawChipStack(g, CHIP_SPRITE + i, CHIP_MARGIN + i * 50, TABLE_HEIGHT - 110, 6, chips[i]);
 			String padding = "";
 			if (chipDenom[i] < 100) {
 				padding = " ";
@@ -420,15 +526,14 @@ public class BlackjackGUI extends JPanel {
 		return "    Push";
 	}
 
-	private String getValuesString(ArrayList<Card> hand) {
+	private String getValuesString(HandSnapshot hand) {
 		textColor = Color.BLACK;
-		ArrayList<Integer> values = BlackjackModel.possibleHandValues(hand);
-		String toDraw = " (" + values.get(0);
-		if (values.size() == 2) {
-			toDraw += "/" + values.get(1);
+		String toDraw = " (" + hand.getHardTotal();
+		if (hand.isSoft()) {
+			toDraw += "/" + hand.getBestTotal();
 		}
 		toDraw += ")";
-		HandAssessment status = BlackjackModel.assessHand(hand);
+		HandAssessment status = hand.getAssessment();
 		if (status == HandAssessment.NATURAL_BLACKJACK) {
 			toDraw += "  BLACKJACK!";
 			textColor = HAPPY_COLOR;
@@ -439,10 +544,10 @@ public class BlackjackGUI extends JPanel {
 		return toDraw;
 	}
 
-	private void drawCards(Graphics g, ArrayList<Card> hand, boolean lastCardDown, int height) {
+	private void drawCards(Graphics g, HandSnapshot hand, boolean lastCardDown, int height) {
 		int xPos = LEFT_MARGIN + 20;
 		for (int i = 0; i < hand.size(); i++) {
-			Card c = hand.get(i);
+			Card c = hand.getCard(i);
 			if (lastCardDown && i == hand.size() - 1) {
 				c = null;
 			}
@@ -456,13 +561,34 @@ public class BlackjackGUI extends JPanel {
 	}
 
 	private void drawCard(Graphics g, Card c, int x, int y) {
-		String cardName;
 		if (c == null) {
-			cardName = "images/b2fv.gif";  // face-down
+			atlas.draw(g, CARD_BACK_SPRITE, x, y);  // face-down
 		} else {
-			cardName = getImageFileName(c);
+			atlas.draw(g, c.getCode(), x, y);
+		}
+	}
+
+	/*
+	 * Sprite order in the atlas: the 52 cards by card code, the card back, then the large 
+	 * and small chip of each colour.
+	 */
+	private static final int CARD_BACK_SPRITE = Card.NUM_CARDS;
+	private static final int CHIP_SPRITE = CARD_BACK_SPRITE + 1;
+	private static final int SMALL_CHIP_SPRITE = CHIP_SPRITE + chipColor.length;
+
+	private static List<String> spriteImageNames() {
+		List<String> names = new ArrayList<>();
+		for (int code = 0; code < Card.NUM_CARDS; code++) {
+			names.add(getImageFileName(Card.of(code)));
+		}
+		names.add("images/b2fv.gif");
+		for (String color : chipColor) {
+			names.add("images/" + color + "Chip.png");
+		}
+		for (String color : chipColor) {
+			names.add("images/" + color + "ChipSmall.png");
 		}
-		g.drawImage(ImageLoader.getImage(cardName), x, y, this);
+		return names;
 	}
 
 	private static String[] suitPrefix = {"s", "d", "c", "h"};
@@ -485,10 +611,9 @@ public class BlackjackGUI extends JPanel {
 		return "images/" + retValue + ".gif";	
 	}
 
-	private void drawChipStack(Graphics g, String image, int x, int y, int separation, int count) {
-		BufferedImage chip = ImageLoader.getImage("images/" + image);
+	private void drawChipStack(Graphics g, int sprite, int x, int y, int separation, int count) {
 		for (int i = 0; i < count; i++) {
-			g.drawImage(chip, x, y - separation * i, this);
+			atlas.draw(g, sprite, x, y - separation * i);
 		}
 	}
 
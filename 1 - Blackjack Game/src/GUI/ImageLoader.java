@@ -1,81 +1,195 @@
 package GUI;
-import java.net.*;
-import java.awt.*;
-import java.awt.image.*;
-import java.util.*;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.imageio.ImageIO;
 
 /*
  * Load an image from a String or URL
  * 
+ * Images are decoded with ImageIO on a small pool of worker threads and cached as futures in a
+ * concurrent map, one per file name or URL. The first request for an image starts its load and
+ * later requests share the same future, so callers never wait on each other's images. A failed
+ * load is evicted, so a later request retries it.
+ * preload() and preloadDirectory() start many loads at once, e.g. the whole card set at startup.
+ * 
  * @author Fawzi Emad @author Ben Bederson @author Bill Pugh 
  * Copyright (C) 2003-2020 University of Maryland
  *  
  */
 public class ImageLoader {
-	private static HashMap<Object, BufferedImage> cache = new HashMap<>();
+	private static final ConcurrentHashMap<Object, CompletableFuture<BufferedImage>> cache = new ConcurrentHashMap<>();
+	private static final ExecutorService workers = Executors.newFixedThreadPool(
+			Math.max(2, Runtime.getRuntime().availableProcessors()), r -> {
+				Thread t = new Thread(r, "image-loader");
+				t.setDaemon(true);
+				return t;
+			});
+
+	private static final LongAdder hits = new LongAdder();
+	private static final LongAdder misses = new LongAdder();
+	private static final LongAdder loaded = new LongAdder();
+	private static final LongAdder loadNanos = new LongAdder();
 
-	public synchronized static BufferedImage getImage(String f) {
-		BufferedImage img = (BufferedImage) cache.get(f);
-		if (img == null) {
-			img = loadImage(f);
-			cache.put(f, img);
+	public static BufferedImage getImage(String f) {
+		return await(request(f));
+	}
+
+	public static BufferedImage getImage(URL u) {
+		return await(request(u));
+	}
+
+	/*
+	 * Starts loading the named images in parallel, if they are not cached yet. The returned 
+	 * future completes once all of them are loaded.
+	 */
+	public static CompletableFuture<Void> preload(Collection<String> imageNames) {
+		List<CompletableFuture<BufferedImage>> futures = new ArrayList<>();
+		for (String name : imageNames) {
+			futures.add(cache.computeIfAbsent(name, ImageLoader::startLoad));
 		}
-		return img;
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]));
 	}
 
-	public synchronized static BufferedImage getImage(URL u) {
-		BufferedImage img = (BufferedImage) cache.get(u);
-		if (img == null) {
-			img = loadImage(u);
-			cache.put(u, img);
+	/*
+	 * Starts loading every GIF, JPG and PNG file in a directory. Images are cached under
+	 * directory + "/" + file name, the same names getImage is called with.
+	 */
+	public static CompletableFuture<Void> preloadDirectory(String directory) {
+		List<String> names = new ArrayList<>();
+		String[] files = new File(directory).list();
+		if (files != null) {
+			for (String file : files) {
+				String lower = file.toLowerCase();
+				if (lower.endsWith(".gif") || lower.endsWith(".png") || lower.endsWith(".jpg")) {
+					names.add(directory + "/" + file);
+				}
+			}
 		}
-		return img;
+		return preload(names);
+	}
+
+	/*
+	 * Number of requests that found their image already loaded.
+	 */
+	public static long getHits() {
+		return hits.sum();
+	}
+
+	/*
+	 * Number of requests that had to wait for a load.
+	 */
+	public static long getMisses() {
+		return misses.sum();
+	}
+
+	public static long getImagesLoaded() {
+		return loaded.sum();
+	}
+
+	/*
+	 * Total time spent decoding images, summed over all worker threads.
+	 */
+	public static long getLoadNanos() {
+		return loadNanos.sum();
 	}
 
 	//////////////////////////////////////////////////////////////
 	///////////////// PRIVATE IMPLEMENTATION /////////////////////
 	//////////////////////////////////////////////////////////////
+
+	private static CompletableFuture<BufferedImage> request(Object key) {
+		CompletableFuture<BufferedImage> future = cache.computeIfAbsent(key, ImageLoader::startLoad);
+		if (future.isDone()) {
+			hits.increment();
+		} else {
+			misses.increment();
+		}
+		return future;
+	}
+
+	/*
+	 * Called by computeIfAbsent. A load that fails removes its future from the cache, so the 
+	 * next request for the image tries again instead of getting the old failure. The callback is 
+	 * attached before the load starts, so it never runs inside computeIfAbsent itself.
+	 */
+	private static CompletableFuture<BufferedImage> startLoad(Object key) {
+		CompletableFuture<BufferedImage> future = new CompletableFuture<>();
+		future.whenComplete((img, failure) -> {
+			if (failure != null) {
+				cache.remove(key, future);
+			}
+		});
+		workers.execute(() -> {
+			try {
+				long start = System.nanoTime();
+				BufferedImage img = key instanceof URL ? loadImage((URL) key) : loadImage((String) key);
+				loadNanos.add(System.nanoTime() - start);
+				loaded.increment();
+				future.complete(img);
+			} catch (Throwable t) {
+				future.completeExceptionally(t);
+			}
+		});
+		return future;
+	}
+
+	private static BufferedImage await(CompletableFuture<BufferedImage> future) {
+		try {
+			return future.join();
+		} catch (CompletionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			throw e;
+		}
+	}
+
 	/**
-	 * Loads the specified image. The new image will replace any previous image.
+	 * Loads the specified image.
 	 * 
 	 * @param imageName
 	 *            Can be either a local filename or a URL of a GIF, JPG, or PNG
 	 *            image.
 	 */
 	private static BufferedImage loadImage(String imageName) {
-		java.awt.Image origImage = Toolkit.getDefaultToolkit().getImage(
-				imageName);
-		return loadImage(origImage);
+		try {
+			return toArgb(ImageIO.read(new File(imageName)));
+		} catch (IOException e) {
+			throw new RuntimeException("Unable to load image " + imageName, e);
+		}
 	}
 
 	private static BufferedImage loadImage(URL imageURL) {
-		java.awt.Image origImage = Toolkit.getDefaultToolkit().getImage(
-				imageURL);
-		return loadImage(origImage);
+		try {
+			return toArgb(ImageIO.read(imageURL));
+		} catch (IOException e) {
+			throw new RuntimeException("Unable to load image " + imageURL, e);
+		}
 	}
 
-	private static BufferedImage loadImage(Image origImage) {
-		// Java normally loads images in a background thread.
-		// This waits for the image to finish loading.
-		try {
-			MediaTracker tracker = new MediaTracker(new Panel());
-			tracker.addImage(origImage, 0);
-			tracker.waitForID(0);
-			if (tracker.statusID(0, true) != MediaTracker.COMPLETE) {
-				throw new RuntimeException("Unable to load image");
-			}
-		} catch (InterruptedException e) {
-			// won't be interrupted
+	private static BufferedImage toArgb(BufferedImage origImage) {
+		if (origImage == null) {
+			throw new RuntimeException("Unable to load image");
 		}
-		// If image loaded, then create a BufferedImage which is modifiable
-		int imageWidth = origImage.getWidth(null);
-		int imageHeight = origImage.getHeight(null);
-/*		BufferedImage buf = new BufferedImage(imageWidth, imageHeight,
-				BufferedImage.TYPE_INT_RGB); */
-		BufferedImage buf = new BufferedImage(imageWidth, imageHeight,
+		// Create a BufferedImage which is modifiable
+		BufferedImage buf = new BufferedImage(origImage.getWidth(), origImage.getHeight(),
 				BufferedImage.TYPE_INT_ARGB);
 		Graphics g = buf.createGraphics();
 		g.drawImage(origImage, 0, 0, null);
+		g.dispose();
 		return buf;
 	}
 }
\ No newline at end of file
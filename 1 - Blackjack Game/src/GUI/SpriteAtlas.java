@@ -0,0 +1,93 @@
+package GUI;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+/*
+ * All of the table's images packed once into a single image, so drawing a card or a chip is one
+ * blit from a known rectangle instead of a lookup by file name. Sprites are numbered in the order
+ * their file names were given. The atlas is a compatible translucent image for the screen, which
+ * Java2D can keep in video memory.
+ */
+public class SpriteAtlas {
+
+	private static final int MAX_WIDTH = 1024;
+
+	private final BufferedImage atlas;
+	private final int[] x;
+	private final int[] y;
+	private final int[] width;
+	private final int[] height;
+
+	public SpriteAtlas(List<String> imageNames) {
+		int count = imageNames.size();
+		BufferedImage[] images = new BufferedImage[count];
+		x = new int[count];
+		y = new int[count];
+		width = new int[count];
+		height = new int[count];
+
+		// simple shelf packing: left to right, starting a new row when the current one is full
+		int rowX = 0;
+		int rowY = 0;
+		int rowHeight = 0;
+		int atlasWidth = 0;
+		for (int i = 0; i < count; i++) {
+			images[i] = ImageLoader.getImage(imageNames.get(i));
+			width[i] = images[i].getWidth();
+			height[i] = images[i].getHeight();
+			if (rowX + width[i] > MAX_WIDTH) {
+				rowX = 0;
+				rowY += rowHeight;
+				rowHeight = 0;
+			}
+			x[i] = rowX;
+			y[i] = rowY;
+			rowX += width[i];
+			rowHeight = Math.max(rowHeight, height[i]);
+			atlasWidth = Math.max(atlasWidth, rowX);
+		}
+
+		atlas = createImage(Math.max(1, atlasWidth), Math.max(1, rowY + rowHeight));
+		Graphics2D g = atlas.createGraphics();
+		for (int i = 0; i < count; i++) {
+			g.drawImage(images[i], x[i], y[i], null);
+		}
+		g.dispose();
+	}
+
+	/*
+	 * A translucent image in the screen's preferred format, or a plain ARGB image when headless.
+	 */
+	static BufferedImage createImage(int w, int h) {
+		if (!GraphicsEnvironment.isHeadless()) {
+			GraphicsConfiguration gc = GraphicsEnvironment.getLocalGraphicsEnvironment()
+					.getDefaultScreenDevice().getDefaultConfiguration();
+			return gc.createCompatibleImage(w, h, Transparency.TRANSLUCENT);
+		}
+		return new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+	}
+
+	/*
+	 * Draws sprite number index with its top left corner at (dx, dy).
+	 */
+	public void draw(Graphics g, int index, int dx, int dy) {
+		int sx = x[index];
+		int sy = y[index];
+		g.drawImage(atlas, dx, dy, dx + width[index], dy + height[index],
+				sx, sy, sx + width[index], sy + height[index], null);
+	}
+
+	public int getWidth(int index) {
+		return width[index];
+	}
+
+	public int getHeight(int index) {
+		return height[index];
+	}
+}
@@ -0,0 +1,30 @@
+package analysis;
+
+/*
+ * Memo key for the exact calculators: a shoe composition packed by DealerOutcomeCalculator.pack
+ * plus a small int describing the hand being played.
+ */
+final class CompositionKey {
+
+	private final long composition;
+	private final int state;
+
+	CompositionKey(long composition, int state) {
+		this.composition = composition;
+		this.state = state;
+	}
+
+	@Override
+	public boolean equals(Object other) {
+		if(!(other instanceof CompositionKey)) {
+			return false;
+		}
+		CompositionKey k = (CompositionKey) other;
+		return k.composition == composition && k.state == state;
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(composition * 31 + state);
+	}
+}
@@ -0,0 +1,223 @@
+package analysis;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import blackjack.RuleSet;
+
+/*
+ * Computes the exact probabilities of the dealer's final hand given the up card and the cards
+ * left in the shoe. The dealer follows the dealerShouldTakeCard rule of a RuleSet (RuleSet.STANDARD
+ * unless another is given), with hands valued the same way as HandState (only a hand with a single
+ * ace can be soft). The cache belongs to one rule set, so its keys do not include the rules.
+ *
+ * Shoe compositions are counts per blackjack value: index 0 holds aces, index 8 nines and
+ * index 9 all ten-valued cards. Results are memoized on the composition packed into a long
+ * together with the dealer's hard total and ace count. The cache is shared by all queries,
+ * is safe to use from many threads and keeps at most maxEntries results, dropping the least
+ * recently used ones first.
+ *
+ * The returned arrays are indexed by TOTAL_17 .. TOTAL_21, BUST and NATURAL and sum to 1.
+ */
+public class DealerOutcomeCalculator {
+
+	public static final int TOTAL_17 = 0;
+	public static final int TOTAL_18 = 1;
+	public static final int TOTAL_19 = 2;
+	public static final int TOTAL_20 = 3;
+	public static final int TOTAL_21 = 4;
+	public static final int BUST = 5;
+	public static final int NATURAL = 6;
+	public static final int NUM_OUTCOMES = 7;
+
+	public static final int NUM_VALUES = 10;
+
+	private static final int STRIPES = 16;
+	private static final double[] BUST_ONLY = outcome(BUST);
+	private static final double[][] STAND_ON = {outcome(TOTAL_17), outcome(TOTAL_18),
+			outcome(TOTAL_19), outcome(TOTAL_20), outcome(TOTAL_21)};
+
+	private final LruStripe[] stripes = new LruStripe[STRIPES];
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final RuleSet rules;
+
+	public DealerOutcomeCalculator(int maxEntries) {
+		this(maxEntries, RuleSet.STANDARD);
+	}
+
+	public DealerOutcomeCalculator(int maxEntries, RuleSet rules) {
+		this.rules = rules;
+		int perStripe = Math.max(1, maxEntries / STRIPES);
+		for(int i = 0; i < STRIPES; i++) {
+			stripes[i] = new LruStripe(perStripe);
+		}
+	}
+
+	/*
+	 * Counts per value for a full shoe of numDecks decks.
+	 */
+	public static int[] fullShoe(int numDecks) {
+		int[] counts = new int[NUM_VALUES];
+		for(int v = 0; v < NUM_VALUES - 1; v++) {
+			counts[v] = 4 * numDecks;
+		}
+		counts[NUM_VALUES - 1] = 16 * numDecks;
+		return counts;
+	}
+
+	/*
+	 * Probabilities of each final dealer outcome. upCardValue is the blackjack value of the up
+	 * card (1 for an ace) and remaining the cards left in the shoe, not counting the up card.
+	 * The hole card is drawn from remaining as well. The array passed in is not changed.
+	 */
+	public double[] dealerOutcomes(int upCardValue, int[] remaining) {
+		int[] counts = remaining.clone();
+		int total = 0;
+		for(int c : counts) {
+			total += c;
+		}
+		double[] result = new double[NUM_OUTCOMES];
+		for(int hole = 1; hole <= NUM_VALUES; hole++) {
+			int n = counts[hole - 1];
+			if(n == 0) {
+				continue;
+			}
+			double p = (double) n / total;
+			if((upCardValue == 1 && hole == 10) || (upCardValue == 10 && hole == 1)) {
+				result[NATURAL] += p;
+				continue;
+			}
+			counts[hole - 1]--;
+			int aces = (upCardValue == 1 ? 1 : 0) + (hole == 1 ? 1 : 0);
+			double[] sub = play(upCardValue + hole, aces, counts, total - 1);
+			counts[hole - 1]++;
+			for(int i = 0; i < NUM_OUTCOMES; i++) {
+				result[i] += p * sub[i];
+			}
+		}
+		return result;
+	}
+
+	/*
+	 * Outcome probabilities once the dealer holds the given hard total and number of aces
+	 * (capped at 2) with counts left in the shoe. The returned array must not be modified.
+	 */
+	private double[] play(int hard, int aces, int[] counts, int total) {
+		if(hard > 21) {
+			return BUST_ONLY;
+		}
+		boolean soft = aces == 1 && hard + 10 <= 21;
+		int best = soft ? hard + 10 : hard;
+		if(!rules.dealerShouldTakeCard(best, soft)) {
+			return STAND_ON[best - 17];
+		}
+		if(total == 0) {
+			throw new IllegalArgumentException("shoe ran out before the dealer finished");
+		}
+
+		long composition = pack(counts);
+		int state = hard << 2 | aces;
+		LruStripe stripe = stripes[(int) ((composition * 31 + state) & (STRIPES - 1))];
+		CompositionKey key = new CompositionKey(composition, state);
+		double[] cached = stripe.lookup(key);
+		if(cached != null) {
+			hits.increment();
+			return cached;
+		}
+		misses.increment();
+
+		double[] result = new double[NUM_OUTCOMES];
+		for(int v = 1; v <= NUM_VALUES; v++) {
+			int n = counts[v - 1];
+			if(n == 0) {
+				continue;
+			}
+			double p = (double) n / total;
+			counts[v - 1]--;
+			double[] sub = play(hard + v, Math.min(2, aces + (v == 1 ? 1 : 0)), counts, total - 1);
+			counts[v - 1]++;
+			for(int i = 0; i < NUM_OUTCOMES; i++) {
+				result[i] += p * sub[i];
+			}
+		}
+		stripe.store(key, result);
+		return result;
+	}
+
+	/*
+	 * Packs a composition into 62 bits: 6 bits for each of aces through nines and 8 bits for
+	 * tens, enough for an eight deck shoe.
+	 */
+	static long pack(int[] counts) {
+		long key = 0;
+		for(int v = 0; v < NUM_VALUES - 1; v++) {
+			if(counts[v] > 63) {
+				throw new IllegalArgumentException("too many cards of value " + (v + 1));
+			}
+			key = key << 6 | counts[v];
+		}
+		if(counts[NUM_VALUES - 1] > 255) {
+			throw new IllegalArgumentException("too many ten-valued cards");
+		}
+		return key << 8 | counts[NUM_VALUES - 1];
+	}
+
+	public RuleSet getRuleSet() {
+		return rules;
+	}
+
+	public long getCacheHits() {
+		return hits.sum();
+	}
+
+	public long getCacheMisses() {
+		return misses.sum();
+	}
+
+	public int getCacheSize() {
+		int size = 0;
+		for(LruStripe s : stripes) {
+			size += s.size();
+		}
+		return size;
+	}
+
+	private static double[] outcome(int index) {
+		double[] result = new double[NUM_OUTCOMES];
+		result[index] = 1;
+		return result;
+	}
+
+	/*
+	 * One lock-protected slice of the cache, evicting in least recently used order.
+	 */
+	private static final class LruStripe extends LinkedHashMap<CompositionKey, double[]> {
+		private static final long serialVersionUID = 1L;
+		private final int capacity;
+
+		LruStripe(int capacity) {
+			super(16, 0.75f, true);
+			this.capacity = capacity;
+		}
+
+		synchronized double[] lookup(CompositionKey key) {
+			return get(key);
+		}
+
+		synchronized void store(CompositionKey key, double[] value) {
+			put(key, value);
+		}
+
+		@Override
+		public synchronized int size() {
+			return super.size();
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<CompositionKey, double[]> eldest) {
+			return size() > capacity;
+		}
+	}
+}
@@ -0,0 +1,211 @@
+package analysis;
+
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import blackjack.PlayerPolicy;
+import blackjack.RuleSet;
+import deckOfCards.Rank;
+
+/*
+ * Exact expected return of a round, found by enumerating every starting situation (dealer up
+ * card and the player's two cards, by value) with its probability of being dealt from a full
+ * shoe, instead of sampling hands. Card values follow Rank.getValue() and hands are valued like
+ * HandState; the dealer plays by the RuleSet of the DealerOutcomeCalculator and rounds are paid
+ * like gameAssessment, a natural at that rule set's blackjack payout.
+ *
+ * Every situation is a fork-join task. Draws after the deal use the exact remaining composition.
+ * Shared subproblems are memoized: dealer outcomes in the DealerOutcomeCalculator cache, and the
+ * player's value for a (composition, hand, up card) in a map shared by all tasks of one run.
+ *
+ * The player either follows a PlayerPolicy or, with no policy, makes the composition-dependent
+ * optimal hit/stand choice at every point.
+ */
+public class HouseEdgeCalculator {
+
+	private static final Rank[] RANK_OF_VALUE = {null, Rank.ACE, Rank.TWO, Rank.THREE, Rank.FOUR,
+			Rank.FIVE, Rank.SIX, Rank.SEVEN, Rank.EIGHT, Rank.NINE, Rank.TEN};
+
+	private final DealerOutcomeCalculator dealer;
+	private final ForkJoinPool pool;
+
+	public HouseEdgeCalculator(DealerOutcomeCalculator dealer, ForkJoinPool pool) {
+		this.dealer = dealer;
+		this.pool = pool;
+	}
+
+	public HouseEdgeCalculator() {
+		this(RuleSet.STANDARD);
+	}
+
+	public HouseEdgeCalculator(RuleSet rules) {
+		this(new DealerOutcomeCalculator(1 << 22, rules), ForkJoinPool.commonPool());
+	}
+
+	/*
+	 * Expected return per unit bet for a shoe of numDecks decks; the house edge is its negative.
+	 * policy may be null for optimal play.
+	 */
+	public double expectedReturn(int numDecks, PlayerPolicy policy) {
+		Run run = new Run(policy);
+		int[] shoe = DealerOutcomeCalculator.fullShoe(numDecks);
+		return pool.invoke(run.new Situations(shoe));
+	}
+
+	/*
+	 * State of one calculation: the policy and the player memo.
+	 */
+	private class Run {
+		private final PlayerPolicy policy;
+		private final ConcurrentHashMap<CompositionKey, Double> playerMemo = new ConcurrentHashMap<>();
+
+		Run(PlayerPolicy policy) {
+			this.policy = policy;
+		}
+
+		/*
+		 * Forks one task per (up card, first player card, second player card) and adds up the
+		 * probability-weighted results.
+		 */
+		private class Situations extends RecursiveTask<Double> {
+			private static final long serialVersionUID = 1L;
+			private final int[] shoe;
+
+			Situations(int[] shoe) {
+				this.shoe = shoe;
+			}
+
+			@Override
+			protected Double compute() {
+				ArrayList<Situation> tasks = new ArrayList<>();
+				int total = sum(shoe);
+				for(int up = 1; up <= 10; up++) {
+					double pUp = (double) shoe[up - 1] / total;
+					int[] afterUp = shoe.clone();
+					afterUp[up - 1]--;
+					for(int first = 1; first <= 10; first++) {
+						for(int second = first; second <= 10; second++) {
+							int[] counts = afterUp.clone();
+							double p = pUp * take(counts, first) * take(counts, second);
+							if(first != second) {
+								p *= 2;
+							}
+							if(p > 0) {
+								tasks.add(new Situation(up, first, second, counts, p));
+							}
+						}
+					}
+				}
+				invokeAll(tasks);
+				double value = 0;
+				for(Situation s : tasks) {
+					value += s.getRawResult();
+				}
+				return value;
+			}
+		}
+
+		private class Situation extends RecursiveTask<Double> {
+			private static final long serialVersionUID = 1L;
+			private final int up;
+			private final int first;
+			private final int second;
+			private final int[] counts;
+			private final double probability;
+
+			Situation(int up, int first, int second, int[] counts, double probability) {
+				this.up = up;
+				this.first = first;
+				this.second = second;
+				this.counts = counts;
+				this.probability = probability;
+			}
+
+			@Override
+			protected Double compute() {
+				int hard = first + second;
+				int aces = (first == 1 ? 1 : 0) + (second == 1 ? 1 : 0);
+				if(aces == 1 && hard == 11) {
+					double dealerNatural = dealer.dealerOutcomes(up, counts)[DealerOutcomeCalculator.NATURAL];
+					return probability * dealer.getRuleSet().getBlackjackPayout() * (1 - dealerNatural);
+				}
+				return probability * handValue(up, hard, aces, counts);
+			}
+		}
+
+		/*
+		 * Expected return of a player hand that may still draw, with counts left in the shoe.
+		 * counts is restored before returning.
+		 */
+		private double handValue(int up, int hard, int aces, int[] counts) {
+			CompositionKey key = new CompositionKey(DealerOutcomeCalculator.pack(counts), up << 8 | hard << 2 | aces);
+			Double memo = playerMemo.get(key);
+			if(memo != null) {
+				return memo;
+			}
+			boolean soft = aces == 1 && hard + 10 <= 21;
+			int total = soft ? hard + 10 : hard;
+			double value = StrategyTableGenerator.standValue(total, dealer.dealerOutcomes(up, counts));
+			if(policy == null) {
+				value = Math.max(value, hitValue(up, hard, aces, counts));
+			} else if(policy.shouldTakeCard(total, soft, RANK_OF_VALUE[up])) {
+				value = hitValue(up, hard, aces, counts);
+			}
+			playerMemo.put(key, value);
+			return value;
+		}
+
+		private double hitValue(int up, int hard, int aces, int[] counts) {
+			int total = sum(counts);
+			double value = 0;
+			for(int v = 1; v <= 10; v++) {
+				int n = counts[v - 1];
+				if(n == 0) {
+					continue;
+				}
+				double p = (double) n / total;
+				if(hard + v > 21) {
+					value -= p;
+					continue;
+				}
+				counts[v - 1]--;
+				value += p * handValue(up, hard + v, Math.min(2, aces + (v == 1 ? 1 : 0)), counts);
+				counts[v - 1]++;
+			}
+			return value;
+		}
+	}
+
+	static int sum(int[] counts) {
+		int total = 0;
+		for(int c : counts) {
+			total += c;
+		}
+		return total;
+	}
+
+	/*
+	 * Probability of drawing value v from counts, and removes that card from counts.
+	 */
+	private static double take(int[] counts, int v) {
+		int total = sum(counts);
+		double p = total == 0 ? 0 : (double) counts[v - 1] / total;
+		if(counts[v - 1] > 0) {
+			counts[v - 1]--;
+		}
+		return p;
+	}
+
+	public static void main(String[] args) {
+		int decks = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+		HouseEdgeCalculator calculator = new HouseEdgeCalculator();
+		long start = System.nanoTime();
+		double optimal = calculator.expectedReturn(decks, null);
+		System.out.printf("optimal hit/stand: %.6f (%.2f s)%n", optimal, (System.nanoTime() - start) / 1e9);
+		start = System.nanoTime();
+		double mimic = calculator.expectedReturn(decks, PlayerPolicy.MIMIC_DEALER);
+		System.out.printf("mimic the dealer:  %.6f (%.2f s)%n", mimic, (System.nanoTime() - start) / 1e9);
+	}
+}
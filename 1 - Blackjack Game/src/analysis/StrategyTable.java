@@ -0,0 +1,79 @@
+package analysis;
+
+import blackjack.PlayerPolicy;
+import deckOfCards.Rank;
+
+/*
+ * Hit/stand decisions and expected values for every (player total, soft flag, dealer up card)
+ * cell, stored in flat arrays so a lookup is a single index computation.
+ * Totals run from 2 to 21 and up cards are blackjack values from 1 (ace) to 10.
+ * Built by StrategyTableGenerator.
+ */
+public class StrategyTable implements PlayerPolicy {
+
+	static final int TOTALS = 22;
+	static final int UP_CARDS = 11;
+
+	private final boolean[] hit = new boolean[2 * TOTALS * UP_CARDS];
+	private final double[] standValue = new double[2 * TOTALS * UP_CARDS];
+	private final double[] hitValue = new double[2 * TOTALS * UP_CARDS];
+
+	StrategyTable() {
+	}
+
+	static int index(int total, boolean soft, int upCardValue) {
+		return ((soft ? TOTALS : 0) + total) * UP_CARDS + upCardValue;
+	}
+
+	void set(int total, boolean soft, int upCardValue, double stand, double hitEv) {
+		int i = index(total, soft, upCardValue);
+		standValue[i] = stand;
+		hitValue[i] = hitEv;
+		hit[i] = hitEv > stand;
+	}
+
+	/*
+	 * Table lookup, totals above 21 never hit.
+	 */
+	public boolean shouldHit(int total, boolean soft, int upCardValue) {
+		return total <= 21 && hit[index(total, soft, upCardValue)];
+	}
+
+	@Override
+	public boolean shouldTakeCard(int playerTotal, boolean soft, Rank dealerUpCard) {
+		return shouldHit(playerTotal, soft, dealerUpCard.getValue());
+	}
+
+	/*
+	 * Expected return per unit bet when standing in this cell.
+	 */
+	public double getStandValue(int total, boolean soft, int upCardValue) {
+		return standValue[index(total, soft, upCardValue)];
+	}
+
+	/*
+	 * Expected return per unit bet when taking a card in this cell and playing on optimally.
+	 */
+	public double getHitValue(int total, boolean soft, int upCardValue) {
+		return hitValue[index(total, soft, upCardValue)];
+	}
+
+	/*
+	 * Prints the chart the usual way: one row per total, one column per up card (2..10, A).
+	 */
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("     2  3  4  5  6  7  8  9  T  A\n");
+		for(int s = 0; s < 2; s++) {
+			boolean soft = s == 1;
+			for(int total = soft ? 12 : 4; total <= 21; total++) {
+				sb.append(soft ? 'S' : 'H').append(String.format("%-3d", total));
+				for(int up = 2; up <= 11; up++) {
+					sb.append(shouldHit(total, soft, up == 11 ? 1 : up) ? "  H" : "  S");
+				}
+				sb.append('\n');
+			}
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,147 @@
+package analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/*
+ * Computes the hit/stand strategy table for a shoe of a given number of decks.
+ * Each dealer up card is one fork-join task: it gets the exact dealer outcomes from a shared
+ * DealerOutcomeCalculator and then solves every player cell for that up card with a small
+ * dynamic program over (hard total, ace count). Player hands are valued like HandState and
+ * paid like BlackjackModel.gameAssessment, so a dealer natural only beats player totals under 21.
+ * Player draws use the shoe minus the up card, ignoring the player's own cards.
+ */
+public class StrategyTableGenerator {
+
+	private final DealerOutcomeCalculator dealer;
+
+	public StrategyTableGenerator(DealerOutcomeCalculator dealer) {
+		this.dealer = dealer;
+	}
+
+	public StrategyTableGenerator() {
+		this(new DealerOutcomeCalculator(1 << 20));
+	}
+
+	public StrategyTable generate(int numDecks) {
+		return generate(numDecks, ForkJoinPool.commonPool());
+	}
+
+	public StrategyTable generate(int numDecks, ForkJoinPool pool) {
+		StrategyTable table = new StrategyTable();
+		pool.invoke(new RecursiveAction() {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected void compute() {
+				ArrayList<UpCardTask> tasks = new ArrayList<>();
+				for(int up = 1; up <= 10; up++) {
+					tasks.add(new UpCardTask(table, numDecks, up));
+				}
+				invokeAll(tasks);
+			}
+		});
+		return table;
+	}
+
+	/*
+	 * Expected return of standing on a total against the given dealer outcomes.
+	 */
+	static double standValue(int total, double[] dealerOutcomes) {
+		double value = dealerOutcomes[DealerOutcomeCalculator.BUST];
+		for(int i = DealerOutcomeCalculator.TOTAL_17; i <= DealerOutcomeCalculator.NATURAL; i++) {
+			int dealerTotal = i == DealerOutcomeCalculator.NATURAL ? 21 : 17 + i;
+			if(i == DealerOutcomeCalculator.BUST) {
+				continue;
+			}
+			if(total > dealerTotal) {
+				value += dealerOutcomes[i];
+			} else if(total < dealerTotal) {
+				value -= dealerOutcomes[i];
+			}
+		}
+		return value;
+	}
+
+	private class UpCardTask extends RecursiveAction {
+		private static final long serialVersionUID = 1L;
+
+		private final StrategyTable table;
+		private final int numDecks;
+		private final int up;
+		private double[] stand;
+		private double[] draw;
+		private double[][] best;
+
+		UpCardTask(StrategyTable table, int numDecks, int up) {
+			this.table = table;
+			this.numDecks = numDecks;
+			this.up = up;
+		}
+
+		@Override
+		protected void compute() {
+			int[] shoe = DealerOutcomeCalculator.fullShoe(numDecks);
+			shoe[up - 1]--;
+			double[] outcomes = dealer.dealerOutcomes(up, shoe);
+			int cards = 0;
+			for(int c : shoe) {
+				cards += c;
+			}
+			draw = new double[11];
+			for(int v = 1; v <= 10; v++) {
+				draw[v] = (double) shoe[v - 1] / cards;
+			}
+			stand = new double[22];
+			for(int t = 0; t <= 21; t++) {
+				stand[t] = standValue(t, outcomes);
+			}
+			best = new double[22][3];
+			for(double[] row : best) {
+				Arrays.fill(row, Double.NaN);
+			}
+
+			for(int total = 2; total <= 21; total++) {
+				table.set(total, false, up, stand[total], hitValue(total, 0));
+			}
+			for(int total = 12; total <= 21; total++) {
+				table.set(total, true, up, stand[total], hitValue(total - 10, 1));
+			}
+		}
+
+		/*
+		 * Expected return of taking one card and then playing on optimally.
+		 */
+		private double hitValue(int hard, int aces) {
+			double value = 0;
+			for(int v = 1; v <= 10; v++) {
+				int next = hard + v;
+				if(next > 21) {
+					value -= draw[v];
+				} else {
+					value += draw[v] * bestValue(next, Math.min(2, aces + (v == 1 ? 1 : 0)));
+				}
+			}
+			return value;
+		}
+
+		private double bestValue(int hard, int aces) {
+			if(Double.isNaN(best[hard][aces])) {
+				boolean soft = aces == 1 && hard + 10 <= 21;
+				int total = soft ? hard + 10 : hard;
+				best[hard][aces] = Math.max(stand[total], hitValue(hard, aces));
+			}
+			return best[hard][aces];
+		}
+	}
+
+	public static void main(String[] args) {
+		int decks = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+		long start = System.nanoTime();
+		StrategyTable table = new StrategyTableGenerator().generate(decks);
+		System.out.println(table);
+		System.out.printf("%.1f ms%n", (System.nanoTime() - start) / 1e6);
+	}
+}
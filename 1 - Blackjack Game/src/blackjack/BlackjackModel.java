@@ -1,101 +1,311 @@
 package blackjack;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Random;
+import java.util.random.RandomGenerator;
 
 import deckOfCards.*;
 
 /*
  * Models BlackJack game. Provides methods for managing cards and determining game state and results.
+ * 
+ * With publishing switched on (see setPublishSnapshots) every change to the hands publishes a new 
+ * ModelSnapshot, which other threads can read without locking or copying. Hands are kept in card 
+ * arrays that are only ever appended to; once a snapshot shares an array, a new round or a setter 
+ * starts a fresh one. Headless drivers leave publishing off and reuse the same arrays every round.
  */
 public class BlackjackModel {
 	
-	private ArrayList<Card> dealerCards;
-	private ArrayList<Card> playerCards;
-	private Deck deck;
+	private static final int HAND_CAPACITY = 12;
+	
+	private Card[] dealerCards;
+	private int dealerCount;
+	private Card[] playerCards;
+	private int playerCount;
+	private final HandState dealerState = new HandState();
+	private final HandState playerState = new HandState();
+	private CardSource deck;
+	private Shoe shoe;
+	private RuleSet rules = RuleSet.STANDARD;
+	private long roundStart;
+	private boolean roundOpen;
+	
+	private long version;
+	private HandSnapshot dealerSnapshot;
+	private HandSnapshot playerSnapshot;
+	private boolean dealerShared;
+	private boolean playerShared;
+	private boolean dealerInRound;
+	private boolean playerInRound;
+	private boolean publishSnapshots;
+	private volatile ModelSnapshot snapshot = ModelSnapshot.EMPTY;
 	
 	/*
-	 * getter for dealer's hand
+	 * getter for dealer's hand, returns a copy or null if no cards have been dealt
 	 */
 	public ArrayList<Card> getDealerCards(){
-		ArrayList<Card> returnDealerCards = new ArrayList<>();
-		for(Card c : dealerCards) {
-			returnDealerCards.add(c);
-		}
-		return returnDealerCards;
+		return copyOf(dealerCards, dealerCount);
 	}
 	
 	/*
-	 * getter for player's hand
+	 * getter for player's hand, returns a copy or null if no cards have been dealt
 	 */
 	public ArrayList<Card> getPlayerCards(){
-		ArrayList<Card> returnPlayerCards = new ArrayList<>();
-		for(Card c : playerCards) {
-			returnPlayerCards.add(c);
+		return copyOf(playerCards, playerCount);
+	}
+	
+	private static ArrayList<Card> copyOf(Card[] hand, int count) {
+		if(hand == null) {
+			return null;
+		}
+		ArrayList<Card> copy = new ArrayList<>(count);
+		for(int i = 0; i < count; i++) {
+			copy.add(hand[i]);
+		}
+		return copy;
+	}
+	
+	/*
+	 * Latest published snapshot of both hands and the result. Never null, and cheap 
+	 * enough to call on every repaint.
+	 */
+	public ModelSnapshot getSnapshot() {
+		return snapshot;
+	}
+	
+	/*
+	 * Turns snapshot publishing on or off (it is off by default, the GUI turns it on). While it is 
+	 * off getSnapshot() keeps returning the last snapshot published; turning it on publishes the 
+	 * current state.
+	 */
+	public void setPublishSnapshots(boolean publish) {
+		publishSnapshots = publish;
+		if(publish) {
+			dealerSnapshot = dealerInRound ? dealerSnapshot() : null;
+			playerSnapshot = playerInRound ? playerSnapshot() : null;
+			publish();
 		}
-		return returnPlayerCards;
 	}
 	
 	/*
 	 * setter for dealer's hand
 	 */
 	public void setDealerCards(ArrayList<Card> cards) {
-		ArrayList<Card> setDealerCards = new ArrayList<>();
-		for(Card c : cards) {
-			setDealerCards.add(c);
-		}
-		dealerCards = setDealerCards;
+		dealerCards = cards.toArray(new Card[Math.max(HAND_CAPACITY, cards.size())]);
+		dealerCount = cards.size();
+		dealerShared = false;
+		dealerInRound = true;
+		dealerState.set(cards);
+		publishDealer();
 	}
 	
 	/*
 	 * setter for player's hand
 	 */
 	public void setPlayerCards(ArrayList<Card> cards) {
-		ArrayList<Card> setPlayerCards = new ArrayList<>();
-		for(Card c : cards) {
-			setPlayerCards.add(c);
+		playerCards = cards.toArray(new Card[Math.max(HAND_CAPACITY, cards.size())]);
+		playerCount = cards.size();
+		playerShared = false;
+		playerInRound = true;
+		playerState.set(cards);
+		publishPlayer();
+	}
+	
+	private void publishDealer() {
+		if(!publishSnapshots) {
+			return;
+		}
+		dealerSnapshot = dealerSnapshot();
+		publish();
+	}
+	
+	private void publishPlayer() {
+		if(!publishSnapshots) {
+			return;
+		}
+		playerSnapshot = playerSnapshot();
+		publish();
+	}
+	
+	private HandSnapshot dealerSnapshot() {
+		dealerShared = true;
+		return new HandSnapshot(dealerCards, dealerCount, dealerState);
+	}
+	
+	private HandSnapshot playerSnapshot() {
+		playerShared = true;
+		return new HandSnapshot(playerCards, playerCount, playerState);
+	}
+	
+	private void publish() {
+		GameResult result = null;
+		if(dealerSnapshot != null && playerSnapshot != null && dealerCount >= 2 && playerCount >= 2) {
+			result = rules.gameAssessment(playerState, dealerState);
 		}
-		playerCards = setPlayerCards;
+		version++;
+		snapshot = new ModelSnapshot(version, dealerSnapshot, playerSnapshot, result);
+	}
+	
+	/*
+	 * Read-only running state of the dealer's hand, kept up to date as cards are dealt.
+	 */
+	public HandState getDealerHandState() {
+		return dealerState;
+	}
+	
+	/*
+	 * Read-only running state of the player's hand, kept up to date as cards are dealt.
+	 */
+	public HandState getPlayerHandState() {
+		return playerState;
+	}
+	
+	/*
+	 * Returns the dealer's face-up card (the first one dealt) without copying the hand.
+	 */
+	public Card getDealerUpCard() {
+		return dealerCards[0];
 	}
 	
 	/*
 	 * Assigns a new instance of Deck to the deck and calls the deck's shuffle method.
 	 */
 	public void createAndShuffleDeck(Random random) {
-		deck = new Deck();
-		deck.shuffle(random);
+		long start = EngineMetrics.startTimer();
+		Deck newDeck = new Deck();
+		newDeck.shuffle(random);
+		EngineMetrics.shuffled(start);
+		deck = newDeck;
+		shoe = null;
+	}
+	
+	/*
+	 * Deals all following rounds from the given shoe instead of a fresh deck. 
+	 * The shoe is kept across rounds, call shuffleShoeIfNeeded before each round.
+	 */
+	public void setShoe(Shoe shoe) {
+		this.shoe = shoe;
+		deck = shoe;
 	}
 	
 	/*
-	 * Creates and deals two cards to the dealer's hand
+	 * Deals all following cards from the given source, for example a recorder wrapped around 
+	 * the shoe or a recorded round being replayed. A shoe set earlier is still the one 
+	 * shuffled by shuffleShoeIfNeeded.
+	 */
+	public void setCardSource(CardSource source) {
+		deck = source;
+	}
+	
+	/*
+	 * Shuffles the shoe in place if its cut card has been reached, or mixes the last round's 
+	 * cards back in for a continuous shoe. Returns true if a full shuffle happened.
+	 */
+	public boolean shuffleShoeIfNeeded(RandomGenerator random) {
+		long start = EngineMetrics.startTimer();
+		boolean shuffled = shoe.prepareRound(random);
+		if(shuffled) {
+			EngineMetrics.shuffled(start);
+		}
+		return shuffled;
+	}
+	
+	/*
+	 * Plays by the given house rules from now on, RuleSet.STANDARD by default.
+	 */
+	public void setRuleSet(RuleSet rules) {
+		this.rules = rules;
+	}
+	
+	public RuleSet getRuleSet() {
+		return rules;
+	}
+	
+	/*
+	 * Creates and deals two cards to the dealer's hand. 
+	 * The first initial deal to a hand that was already dealt this round starts a new round: the 
+	 * other hand drops out of the snapshot until it is dealt too, so a snapshot never shows hands 
+	 * from two different rounds. The two cards are published together, once both are dealt.
 	 */
 	public void initialDealerCards() {
-		dealerCards = new ArrayList<>();
-		dealerCards.add(deck.dealOneCard());
-		dealerCards.add(deck.dealOneCard());
+		if(EngineMetrics.ENABLED) {
+			EngineMetrics.handStarted();
+			roundStart = EngineMetrics.startTimer();
+			roundOpen = true;
+		}
+		if(dealerInRound) {
+			playerInRound = false;
+			playerSnapshot = null;
+		}
+		dealerInRound = true;
+		if(dealerCards == null || dealerShared) {
+			dealerCards = new Card[HAND_CAPACITY];
+			dealerShared = false;
+		}
+		dealerCount = 0;
+		dealerState.reset();
+		addDealerCard();
+		addDealerCard();
+		publishDealer();
 	}
 	
 	/*
-	 * Creates and deals two cards to the player's hand
+	 * Creates and deals two cards to the player's hand, see initialDealerCards.
 	 */
 	public void initialPlayerCards() {
-		playerCards = new ArrayList<>();
-		playerCards.add(deck.dealOneCard());
-		playerCards.add(deck.dealOneCard());
+		if(playerInRound) {
+			dealerInRound = false;
+			dealerSnapshot = null;
+		}
+		playerInRound = true;
+		if(playerCards == null || playerShared) {
+			playerCards = new Card[HAND_CAPACITY];
+			playerShared = false;
+		}
+		playerCount = 0;
+		playerState.reset();
+		addPlayerCard();
+		addPlayerCard();
+		publishPlayer();
 	}
 	
 	/*
 	 * Deals one card to the player using the deck's deal one card method.
 	 */
 	public void playerTakeCard() {
-		playerCards.add(deck.dealOneCard());
+		addPlayerCard();
+		publishPlayer();
 	}
 	
 	/*
 	 * Deals one card to the dealer using the deck's deal one card method.
 	 */
 	public void dealerTakeCard() {
-		dealerCards.add(deck.dealOneCard());
+		addDealerCard();
+		publishDealer();
+	}
+	
+	private void addPlayerCard() {
+		Card card = deck.dealOneCard();
+		EngineMetrics.cardDealt();
+		if(playerCount == playerCards.length) {
+			playerCards = Arrays.copyOf(playerCards, playerCount * 2);
+			playerShared = false;
+		}
+		playerCards[playerCount++] = card;
+		playerState.add(card.getRank().getValue());
+	}
+	
+	private void addDealerCard() {
+		Card card = deck.dealOneCard();
+		EngineMetrics.cardDealt();
+		if(dealerCount == dealerCards.length) {
+			dealerCards = Arrays.copyOf(dealerCards, dealerCount * 2);
+			dealerShared = false;
+		}
+		dealerCards[dealerCount++] = card;
+		dealerState.add(card.getRank().getValue());
 	}
 	
 	/*
@@ -104,22 +314,11 @@ public class BlackjackModel {
 	 * If the values exceed 21, returns the lowest value. 
 	 */
 	public static ArrayList<Integer> possibleHandValues(ArrayList<Card> hand){
-		int sum = 0;
-		ArrayList<Integer> possibleValues = new ArrayList<>();
-		for(Card c : hand) {
-			sum += c.getRank().getValue();
-		}
-		possibleValues.add(sum);	
-		sum = 0;
-		for(Card c : hand) {
-			if(c.getRank() == Rank.ACE) {
-				sum += 11;
-			} else {
-				sum += c.getRank().getValue();
-			}
-		}
-		if(sum <= 21 && sum != possibleValues.get(0)) {
-			possibleValues.add(sum);
+		HandState state = HandState.of(hand);
+		ArrayList<Integer> possibleValues = new ArrayList<>(2);
+		possibleValues.add(state.getHardTotal());
+		if(state.isSoft()) {
+			possibleValues.add(state.getBestTotal());
 		}
 		return possibleValues;
 	}
@@ -131,63 +330,43 @@ public class BlackjackModel {
 		if(hand == null || hand.size() < 2) {
 			return HandAssessment.INSUFFICIENT_CARDS;
 		}
-		if(possibleHandValues(hand).contains(21) && hand.size() == 2) {
-			return HandAssessment.NATURAL_BLACKJACK;
-		}
-		if(possibleHandValues(hand).get(0) > 21) {
-			return HandAssessment.BUST;
-		}
-		return HandAssessment.NORMAL;
+		return HandState.of(hand).assess();
 	}
 	
 	/*
 	 * Looks at player and dealer's cards to determine the outcome of the game based on BlackJack logic.
+	 * Reads the running hand states instead of rebuilding the possible values of each hand.
 	 */
 	public GameResult gameAssessment() {
-		if(assessHand(playerCards).equals(HandAssessment.NATURAL_BLACKJACK)) {
-			if(assessHand(dealerCards).equals(HandAssessment.NATURAL_BLACKJACK)) {
-				return GameResult.PUSH;
-			} 
-			return GameResult.NATURAL_BLACKJACK;
+		GameResult result = rules.gameAssessment(playerState, dealerState);
+		if(EngineMetrics.ENABLED && roundOpen) {
+			roundOpen = false;
+			EngineMetrics.roundFinished(result, roundStart);
 		}
-		if(assessHand(playerCards).equals(HandAssessment.BUST)) {
-			return GameResult.PLAYER_LOST;
-		}
-		if(assessHand(dealerCards).equals(HandAssessment.BUST)) {
-			return GameResult.PLAYER_WON;
-		}
-		if(possibleHandValues(playerCards).get(possibleHandValues(playerCards).size() - 1) >
-		possibleHandValues(dealerCards).get(possibleHandValues(dealerCards).size() - 1)) {
-			return GameResult.PLAYER_WON;
-		}
-		
-		if(possibleHandValues(playerCards).get(possibleHandValues(playerCards).size() - 1) <
-		possibleHandValues(dealerCards).get(possibleHandValues(dealerCards).size() - 1)) {
-			return GameResult.PLAYER_LOST;
-		}
-		
-		return GameResult.PUSH;
+		return result;
+	}
+	
+	/*
+	 * Outcome of a game given the final state of both hands, see RuleSet.gameAssessment.
+	 */
+	public static GameResult gameAssessment(HandState player, HandState dealer) {
+		return RuleSet.STANDARD.gameAssessment(player, dealer);
 	}
 	
 	/*
 	 * Looks at the dealer's cards and determines whether the dealer should take another card.
 	 * True = dealer should take another card, false = dealer should not take another card.
-	 * Method does not actually draw the dealer's cards. 
+	 * Method does not actually draw the dealer's cards. Follows this model's rule set.
 	 */
 	public boolean dealerShouldTakeCard() {
-		ArrayList<Integer> possibleValues = possibleHandValues(dealerCards);
-		int numPossibleValues = possibleValues.size();
-		if(possibleValues.get(numPossibleValues - 1) <= 16) {
-			return true;
-		}
-		if(possibleValues.get(numPossibleValues - 1) >= 18) {
-			return false;
-		}
-		if(numPossibleValues == 2) {
-			return true;
-		}
-		return false;
-		
+		return rules.dealerShouldTakeCard(dealerState.getBestTotal(), dealerState.isSoft());
+	}
+	
+	/*
+	 * The standard dealer rule on its own: take a card on 16 or less and on soft 17, stand otherwise.
+	 */
+	public static boolean dealerShouldTakeCard(int bestTotal, boolean soft) {
+		return RuleSet.STANDARD.dealerShouldTakeCard(bestTotal, soft);
 	}
 
 }
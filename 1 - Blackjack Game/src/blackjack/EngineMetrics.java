@@ -0,0 +1,223 @@
+package blackjack;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/*
+ * Process-wide counters and latency histograms for the engine: hands started, cards dealt,
+ * reshuffles, results per GameResult, and the time spent per round (first card to result), per
+ * shuffle and per policy decision. Counters are LongAdders, so many simulation threads can
+ * record without contending; latencies go into LatencyHistograms.
+ *
+ * Metrics are off unless the JVM is started with -Dblackjack.metrics=true. ENABLED is a
+ * constant, so when it is false the JIT removes the recording calls from the hot path
+ * entirely, including their System.nanoTime() reads. When enabled, the metrics are registered
+ * over JMX under OBJECT_NAME the first time they are used; snapshot() and publishEvery() give
+ * the same numbers to code.
+ */
+public final class EngineMetrics implements EngineMetricsMBean {
+
+	public static final boolean ENABLED = Boolean.getBoolean("blackjack.metrics");
+	public static final String OBJECT_NAME = "blackjack:type=EngineMetrics";
+
+	private static final EngineMetrics INSTANCE = new EngineMetrics();
+
+	static {
+		if(ENABLED) {
+			INSTANCE.register();
+		}
+	}
+
+	private final LongAdder hands = new LongAdder();
+	private final LongAdder deals = new LongAdder();
+	private final LongAdder reshuffles = new LongAdder();
+	private final LongAdder[] results = new LongAdder[GameResult.values().length];
+	private final LatencyHistogram roundLatency = new LatencyHistogram();
+	private final LatencyHistogram shuffleLatency = new LatencyHistogram();
+	private final LatencyHistogram policyLatency = new LatencyHistogram();
+	private ScheduledExecutorService publisher;
+
+	private EngineMetrics() {
+		for(int i = 0; i < results.length; i++) {
+			results[i] = new LongAdder();
+		}
+	}
+
+	public static EngineMetrics get() {
+		return INSTANCE;
+	}
+
+	/*
+	 * Start time for one of the recording calls, or 0 without reading the clock when disabled.
+	 */
+	public static long startTimer() {
+		return ENABLED ? System.nanoTime() : 0;
+	}
+
+	static void handStarted() {
+		if(ENABLED) {
+			INSTANCE.hands.increment();
+		}
+	}
+
+	static void cardDealt() {
+		if(ENABLED) {
+			INSTANCE.deals.increment();
+		}
+	}
+
+	static void shuffled(long start) {
+		if(ENABLED) {
+			INSTANCE.reshuffles.increment();
+			INSTANCE.shuffleLatency.record(System.nanoTime() - start);
+		}
+	}
+
+	static void roundFinished(GameResult result, long start) {
+		if(ENABLED) {
+			INSTANCE.results[result.ordinal()].increment();
+			INSTANCE.roundLatency.record(System.nanoTime() - start);
+		}
+	}
+
+	/*
+	 * Records one PlayerPolicy decision that started at the given startTimer() value.
+	 */
+	public static void policyDecided(long start) {
+		if(ENABLED) {
+			INSTANCE.policyLatency.record(System.nanoTime() - start);
+		}
+	}
+
+	public MetricsSnapshot snapshot() {
+		long[] counts = new long[results.length];
+		for(int i = 0; i < counts.length; i++) {
+			counts[i] = results[i].sum();
+		}
+		return new MetricsSnapshot(System.nanoTime(), hands.sum(), deals.sum(), reshuffles.sum(), counts,
+				roundLatency.getPercentile(0.5), roundLatency.getPercentile(0.99),
+				shuffleLatency.getPercentile(0.99), policyLatency.getPercentile(0.99));
+	}
+
+	/*
+	 * Hands a snapshot to the consumer every periodMillis on a daemon thread, until the returned
+	 * future is cancelled.
+	 */
+	public synchronized ScheduledFuture<?> publishEvery(long periodMillis, Consumer<MetricsSnapshot> consumer) {
+		if(publisher == null) {
+			publisher = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r, "engine-metrics");
+				t.setDaemon(true);
+				return t;
+			});
+		}
+		return publisher.scheduleAtFixedRate(() -> consumer.accept(snapshot()), periodMillis, periodMillis,
+				TimeUnit.MILLISECONDS);
+	}
+
+	public LatencyHistogram getRoundLatency() {
+		return roundLatency;
+	}
+
+	public LatencyHistogram getShuffleLatency() {
+		return shuffleLatency;
+	}
+
+	public LatencyHistogram getPolicyLatency() {
+		return policyLatency;
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return ENABLED;
+	}
+
+	@Override
+	public long getHands() {
+		return hands.sum();
+	}
+
+	@Override
+	public long getDeals() {
+		return deals.sum();
+	}
+
+	@Override
+	public long getReshuffles() {
+		return reshuffles.sum();
+	}
+
+	@Override
+	public long getPlayerWon() {
+		return results[GameResult.PLAYER_WON.ordinal()].sum();
+	}
+
+	@Override
+	public long getPlayerLost() {
+		return results[GameResult.PLAYER_LOST.ordinal()].sum();
+	}
+
+	@Override
+	public long getPushes() {
+		return results[GameResult.PUSH.ordinal()].sum();
+	}
+
+	@Override
+	public long getNaturalBlackjacks() {
+		return results[GameResult.NATURAL_BLACKJACK.ordinal()].sum();
+	}
+
+	@Override
+	public long getRoundLatencyP50() {
+		return roundLatency.getPercentile(0.5);
+	}
+
+	@Override
+	public long getRoundLatencyP99() {
+		return roundLatency.getPercentile(0.99);
+	}
+
+	@Override
+	public long getShuffleLatencyP99() {
+		return shuffleLatency.getPercentile(0.99);
+	}
+
+	@Override
+	public long getPolicyLatencyP99() {
+		return policyLatency.getPercentile(0.99);
+	}
+
+	@Override
+	public void reset() {
+		hands.reset();
+		deals.reset();
+		reshuffles.reset();
+		for(LongAdder r : results) {
+			r.reset();
+		}
+		roundLatency.reset();
+		shuffleLatency.reset();
+		policyLatency.reset();
+	}
+
+	private void register() {
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if(!server.isRegistered(name)) {
+				server.registerMBean(this, name);
+			}
+		} catch(JMException e) {
+			throw new IllegalStateException("could not register engine metrics", e);
+		}
+	}
+}
@@ -0,0 +1,33 @@
+package blackjack;
+
+/*
+ * What EngineMetrics shows over JMX, under EngineMetrics.OBJECT_NAME. Latencies are in nanoseconds.
+ */
+public interface EngineMetricsMBean {
+
+	boolean isEnabled();
+
+	long getHands();
+
+	long getDeals();
+
+	long getReshuffles();
+
+	long getPlayerWon();
+
+	long getPlayerLost();
+
+	long getPushes();
+
+	long getNaturalBlackjacks();
+
+	long getRoundLatencyP50();
+
+	long getRoundLatencyP99();
+
+	long getShuffleLatencyP99();
+
+	long getPolicyLatencyP99();
+
+	void reset();
+}
@@ -0,0 +1,78 @@
+package blackjack;
+
+import java.util.AbstractList;
+import java.util.List;
+
+import deckOfCards.Card;
+
+/*
+ * Immutable view of one hand at the moment a ModelSnapshot was published. The cards are not
+ * copied: the snapshot shares the model's card array and only reads the slots that were filled
+ * when it was made, which the model never writes again.
+ */
+public final class HandSnapshot {
+
+	private final Card[] cards;
+	private final int size;
+	private final int hardTotal;
+	private final boolean soft;
+	private final HandAssessment assessment;
+
+	HandSnapshot(Card[] cards, int size, HandState state) {
+		this.cards = cards;
+		this.size = size;
+		this.hardTotal = state.getHardTotal();
+		this.soft = state.isSoft();
+		this.assessment = state.assess();
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public Card getCard(int index) {
+		if(index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException("card " + index + " of " + size);
+		}
+		return cards[index];
+	}
+
+	/*
+	 * Unmodifiable list view of the cards, nothing is copied.
+	 */
+	public List<Card> getCards() {
+		return new AbstractList<Card>() {
+			@Override
+			public Card get(int index) {
+				return getCard(index);
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	/*
+	 * Hand value with aces counted as 1, the first entry of possibleHandValues.
+	 */
+	public int getHardTotal() {
+		return hardTotal;
+	}
+
+	/*
+	 * True when the hand also has the higher value getBestTotal(), see HandState.isSoft.
+	 */
+	public boolean isSoft() {
+		return soft;
+	}
+
+	public int getBestTotal() {
+		return soft ? hardTotal + 10 : hardTotal;
+	}
+
+	public HandAssessment getAssessment() {
+		return assessment;
+	}
+}
@@ -0,0 +1,114 @@
+package blackjack;
+
+import java.util.List;
+
+import deckOfCards.Card;
+
+/*
+ * Running summary of a blackjack hand, updated in O(1) as each card is added: the hard total
+ * (aces counted as 1), the number of aces and the number of cards. Everything the model needs
+ * to know about a hand can be read from it without building the list of possible values.
+ *
+ * The values match BlackjackModel.possibleHandValues exactly. That method only offers a second
+ * value when counting every ace as 11 stays at 21 or under, which can only happen with a single
+ * ace, so a hand is soft only when it holds exactly one ace and hard total + 10 <= 21.
+ *
+ * Only BlackjackModel and other classes of this package change the state, everyone else reads it.
+ */
+public class HandState {
+
+	private int hardTotal;
+	private int aces;
+	private int numCards;
+
+	HandState() {
+	}
+
+	/*
+	 * Builds the state of an existing hand.
+	 */
+	public static HandState of(List<Card> hand) {
+		HandState state = new HandState();
+		state.set(hand);
+		return state;
+	}
+
+	void reset() {
+		hardTotal = 0;
+		aces = 0;
+		numCards = 0;
+	}
+
+	void set(List<Card> hand) {
+		reset();
+		for(Card c : hand) {
+			add(c.getRank().getValue());
+		}
+	}
+
+	void set(int hardTotal, int aces, int numCards) {
+		this.hardTotal = hardTotal;
+		this.aces = aces;
+		this.numCards = numCards;
+	}
+
+	/*
+	 * Adds a card by its blackjack value (1 for an ace).
+	 */
+	void add(int value) {
+		hardTotal += value;
+		if(value == 1) {
+			aces++;
+		}
+		numCards++;
+	}
+
+	/*
+	 * The value of the hand with every ace counted as 1, the first entry of possibleHandValues.
+	 */
+	public int getHardTotal() {
+		return hardTotal;
+	}
+
+	/*
+	 * True when the hand also has a second, higher value (an ace counted as 11).
+	 */
+	public boolean isSoft() {
+		return aces == 1 && hardTotal + 10 <= 21;
+	}
+
+	/*
+	 * The highest value of the hand, the last entry of possibleHandValues.
+	 */
+	public int getBestTotal() {
+		return isSoft() ? hardTotal + 10 : hardTotal;
+	}
+
+	public int getNumCards() {
+		return numCards;
+	}
+
+	public boolean isBust() {
+		return hardTotal > 21;
+	}
+
+	public boolean isNaturalBlackjack() {
+		return numCards == 2 && getBestTotal() == 21;
+	}
+
+	/*
+	 * Same result as BlackjackModel.assessHand on the cards this state was built from.
+	 */
+	public HandAssessment assess() {
+		if(numCards < 2) {
+			return HandAssessment.INSUFFICIENT_CARDS;
+		}
+		if(isNaturalBlackjack()) {
+			return HandAssessment.NATURAL_BLACKJACK;
+		}
+		if(isBust()) {
+			return HandAssessment.BUST;
+		}
+		return HandAssessment.NORMAL;
+	}
+}
@@ -0,0 +1,126 @@
+package blackjack;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * A latency histogram in the style of HdrHistogram: every power of two is split into 
+ * SUB_BUCKETS linear buckets, so any recorded value is known to within 1/SUB_BUCKETS 
+ * (12.5%) whatever its magnitude, from nanoseconds to hours, in a fixed array of 496 counters per stripe.
+ * Recording is one array increment and never allocates or locks. The counters are striped: 
+ * each thread increments the stripe its id hashes to, so threads recording at the same time 
+ * rarely share a cache line, and the readers add the stripes up.
+ */
+public class LatencyHistogram {
+
+	private static final int SUB_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BITS;
+	private static final int BUCKETS = (64 - SUB_BITS + 1) * SUB_BUCKETS;
+	private static final int STRIPES = Math.min(64,
+			Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1));
+
+	private final AtomicLongArray[] stripes = new AtomicLongArray[STRIPES];
+	private final LongAdder total = new LongAdder();
+	private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+	public LatencyHistogram() {
+		for(int i = 0; i < STRIPES; i++) {
+			stripes[i] = new AtomicLongArray(BUCKETS);
+		}
+	}
+
+	public void record(long nanos) {
+		long value = Math.max(0, nanos);
+		stripes[stripeOfCurrentThread()].incrementAndGet(bucketOf(value));
+		total.add(value);
+		max.accumulate(value);
+	}
+
+	private static int stripeOfCurrentThread() {
+		long id = Thread.currentThread().getId();
+		return (int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & (STRIPES - 1);
+	}
+
+	/*
+	 * Count of each bucket, summed over the stripes.
+	 */
+	private long[] mergedCounts() {
+		long[] counts = new long[BUCKETS];
+		for(AtomicLongArray stripe : stripes) {
+			for(int i = 0; i < BUCKETS; i++) {
+				counts[i] += stripe.get(i);
+			}
+		}
+		return counts;
+	}
+
+	public long getCount() {
+		long count = 0;
+		for(long bucketCount : mergedCounts()) {
+			count += bucketCount;
+		}
+		return count;
+	}
+
+	public long getMax() {
+		return max.get();
+	}
+
+	public double getMean() {
+		long count = getCount();
+		return count == 0 ? 0 : (double) total.sum() / count;
+	}
+
+	/*
+	 * Upper bound of the bucket holding the given fraction (0 to 1) of recorded values.
+	 */
+	public long getPercentile(double fraction) {
+		long[] counts = mergedCounts();
+		long count = 0;
+		for(long bucketCount : counts) {
+			count += bucketCount;
+		}
+		if(count == 0) {
+			return 0;
+		}
+		long target = Math.max(1, (long) Math.ceil(count * fraction));
+		long seen = 0;
+		for(int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if(seen >= target) {
+				return Math.min(upperBound(i), getMax());
+			}
+		}
+		return 0;
+	}
+
+	public void reset() {
+		for(AtomicLongArray stripe : stripes) {
+			for(int i = 0; i < BUCKETS; i++) {
+				stripe.set(i, 0);
+			}
+		}
+		total.reset();
+		max.reset();
+	}
+
+	static int bucketOf(long value) {
+		if(value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = 63 - Long.numberOfLeadingZeros(value);
+		int sub = (int) (value >>> (exponent - SUB_BITS)) & (SUB_BUCKETS - 1);
+		return (exponent - SUB_BITS + 1) * SUB_BUCKETS + sub;
+	}
+
+	static long upperBound(int bucket) {
+		if(bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int exponent = bucket / SUB_BUCKETS + SUB_BITS - 1;
+		long sub = bucket % SUB_BUCKETS;
+		long bound = ((SUB_BUCKETS + sub + 1) << (exponent - SUB_BITS)) - 1;
+		return bound < 0 ? Long.MAX_VALUE : bound;
+	}
+}
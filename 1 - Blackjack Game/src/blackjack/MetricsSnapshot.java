@@ -0,0 +1,92 @@
+package blackjack;
+
+/*
+ * The engine counters and latency percentiles at one moment, see EngineMetrics.snapshot.
+ * Comparing two snapshots gives rates over the time between them.
+ */
+public final class MetricsSnapshot {
+
+	private final long nanoTime;
+	private final long hands;
+	private final long deals;
+	private final long reshuffles;
+	private final long[] results;
+	private final long roundP50;
+	private final long roundP99;
+	private final long shuffleP99;
+	private final long policyP99;
+
+	MetricsSnapshot(long nanoTime, long hands, long deals, long reshuffles, long[] results, long roundP50,
+			long roundP99, long shuffleP99, long policyP99) {
+		this.nanoTime = nanoTime;
+		this.hands = hands;
+		this.deals = deals;
+		this.reshuffles = reshuffles;
+		this.results = results;
+		this.roundP50 = roundP50;
+		this.roundP99 = roundP99;
+		this.shuffleP99 = shuffleP99;
+		this.policyP99 = policyP99;
+	}
+
+	/*
+	 * System.nanoTime() when the snapshot was taken.
+	 */
+	public long getNanoTime() {
+		return nanoTime;
+	}
+
+	public long getHands() {
+		return hands;
+	}
+
+	public long getDeals() {
+		return deals;
+	}
+
+	public long getReshuffles() {
+		return reshuffles;
+	}
+
+	public long getResultCount(GameResult result) {
+		return results[result.ordinal()];
+	}
+
+	public long getRoundLatencyP50() {
+		return roundP50;
+	}
+
+	public long getRoundLatencyP99() {
+		return roundP99;
+	}
+
+	public long getShuffleLatencyP99() {
+		return shuffleP99;
+	}
+
+	public long getPolicyLatencyP99() {
+		return policyP99;
+	}
+
+	/*
+	 * Hands started per second between an earlier snapshot and this one.
+	 */
+	public double getHandsPerSecond(MetricsSnapshot earlier) {
+		double seconds = (nanoTime - earlier.nanoTime) / 1e9;
+		return seconds <= 0 ? 0 : (hands - earlier.hands) / seconds;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("hands=").append(hands).append(", deals=").append(deals).append(", reshuffles=")
+				.append(reshuffles);
+		for(GameResult r : GameResult.values()) {
+			sb.append(", ").append(r).append('=').append(results[r.ordinal()]);
+		}
+		sb.append(", round p50<=").append(roundP50).append("ns p99<=").append(roundP99).append("ns")
+				.append(", shuffle p99<=").append(shuffleP99).append("ns, policy p99<=").append(policyP99)
+				.append("ns");
+		return sb.toString();
+	}
+}
@@ -0,0 +1,49 @@
+package blackjack;
+
+/*
+ * Immutable picture of a BlackjackModel, published by the model every time it changes.
+ * Readers on another thread (the Swing EDT, a network thread) get the latest one with
+ * BlackjackModel.getSnapshot() without locking or copying. The version goes up by one with
+ * every change, so a reader can tell whether anything happened since its last look.
+ */
+public final class ModelSnapshot {
+
+	static final ModelSnapshot EMPTY = new ModelSnapshot(0, null, null, null);
+
+	private final long version;
+	private final HandSnapshot dealerHand;
+	private final HandSnapshot playerHand;
+	private final GameResult result;
+
+	ModelSnapshot(long version, HandSnapshot dealerHand, HandSnapshot playerHand, GameResult result) {
+		this.version = version;
+		this.dealerHand = dealerHand;
+		this.playerHand = playerHand;
+		this.result = result;
+	}
+
+	public long getVersion() {
+		return version;
+	}
+
+	/*
+	 * The dealer's hand, or null if no cards have been dealt yet.
+	 */
+	public HandSnapshot getDealerHand() {
+		return dealerHand;
+	}
+
+	/*
+	 * The player's hand, or null if no cards have been dealt yet.
+	 */
+	public HandSnapshot getPlayerHand() {
+		return playerHand;
+	}
+
+	/*
+	 * What gameAssessment() returned for these hands, or null while either hand has fewer than two cards.
+	 */
+	public GameResult getResult() {
+		return result;
+	}
+}
@@ -0,0 +1,176 @@
+package blackjack;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+import deckOfCards.Card;
+import deckOfCards.Rank;
+import deckOfCards.SharedShoe;
+
+/*
+ * A full table: up to MAX_SEATS players, each following its own PlayerPolicy, against one dealer,
+ * all dealt from the same SharedShoe and played by one RuleSet. Unlike running one BlackjackModel
+ * per seat, every seat sees the cards the other seats removed from the shoe.
+ *
+ * The hands of all seats live in one flat int array, SEAT_STRIDE ints per seat: the hard total,
+ * the number of aces, the number of cards and the card codes.
+ *
+ * A round deals like a casino (one card to each seat, then the dealer, then a second round), then
+ * plays the seats in seat order and finally the dealer, so a round only depends on the shuffle.
+ * To use more threads, play several tables at once, see TableSimulator.
+ */
+public class MultiSeatTable {
+
+	public static final int MAX_SEATS = 7;
+
+	/*
+	 * 21 aces make hard 21 and the next card busts, whatever the number of decks; the dealer 
+	 * stands on 17 and holds fewer.
+	 */
+	static final int MAX_HAND_CARDS = 22;
+
+	private static final int SEAT_STRIDE = 32;
+	private static final int HARD = 0;
+	private static final int ACES = 1;
+	private static final int COUNT = 2;
+	private static final int CARDS = 3;
+
+	private final PlayerPolicy[] policies;
+	private final SharedShoe shoe;
+	private final RuleSet rules;
+	private final int[] seats;
+	private final int[] dealer = new int[SEAT_STRIDE];
+	private final GameResult[] results;
+
+	public MultiSeatTable(SharedShoe shoe, PlayerPolicy... policies) {
+		this(shoe, RuleSet.STANDARD, policies);
+	}
+
+	public MultiSeatTable(SharedShoe shoe, RuleSet rules, PlayerPolicy... policies) {
+		if(policies.length < 1 || policies.length > MAX_SEATS) {
+			throw new IllegalArgumentException("a table has 1 to " + MAX_SEATS + " seats");
+		}
+		this.shoe = shoe;
+		this.rules = rules;
+		this.policies = policies.clone();
+		seats = new int[policies.length * SEAT_STRIDE];
+		results = new GameResult[policies.length];
+	}
+
+	/*
+	 * Plays one round, shuffling the shoe first if the cut card has been reached. Returns the
+	 * result of every seat, indexed by seat; the array is reused by the next round.
+	 */
+	public GameResult[] playRound(RandomGenerator random) {
+		shoe.prepareRound(random);
+		clear(dealer, 0);
+		for(int s = 0; s < policies.length; s++) {
+			clear(seats, s * SEAT_STRIDE);
+		}
+		for(int i = 0; i < 2; i++) {
+			for(int s = 0; s < policies.length; s++) {
+				add(seats, s * SEAT_STRIDE, shoe.dealOneCode());
+			}
+			add(dealer, 0, shoe.dealOneCode());
+		}
+
+		Rank upCard = Card.rankOf(dealer[CARDS]);
+		for(int s = 0; s < policies.length; s++) {
+			playSeat(s, upCard);
+		}
+
+		while(rules.dealerShouldTakeCard(bestTotal(dealer, 0), isSoft(dealer, 0))) {
+			add(dealer, 0, shoe.dealOneCode());
+		}
+
+		HandState dealerState = getDealerHandState();
+		HandState seatState = new HandState();
+		for(int s = 0; s < policies.length; s++) {
+			load(seatState, seats, s * SEAT_STRIDE);
+			results[s] = rules.gameAssessment(seatState, dealerState);
+		}
+		return results;
+	}
+
+	public RuleSet getRuleSet() {
+		return rules;
+	}
+
+	public int getNumSeats() {
+		return policies.length;
+	}
+
+	/*
+	 * The result of a seat in the last round.
+	 */
+	public GameResult getResult(int seat) {
+		return results[seat];
+	}
+
+	public List<Card> getSeatCards(int seat) {
+		return cards(seats, seat * SEAT_STRIDE);
+	}
+
+	public HandState getSeatHandState(int seat) {
+		HandState state = new HandState();
+		load(state, seats, seat * SEAT_STRIDE);
+		return state;
+	}
+
+	public List<Card> getDealerCards() {
+		return cards(dealer, 0);
+	}
+
+	public HandState getDealerHandState() {
+		HandState state = new HandState();
+		load(state, dealer, 0);
+		return state;
+	}
+
+	private void playSeat(int seat, Rank upCard) {
+		int base = seat * SEAT_STRIDE;
+		PlayerPolicy policy = policies[seat];
+		// same condition as MonteCarloSimulator.playHand: a NORMAL hand, neither bust nor a natural
+		while(seats[base + HARD] <= 21 && !(seats[base + COUNT] == 2 && bestTotal(seats, base) == 21)
+				&& policy.shouldTakeCard(bestTotal(seats, base), isSoft(seats, base), upCard)) {
+			add(seats, base, shoe.dealOneCode());
+		}
+	}
+
+	private static void clear(int[] hands, int base) {
+		hands[base + HARD] = 0;
+		hands[base + ACES] = 0;
+		hands[base + COUNT] = 0;
+	}
+
+	private static void add(int[] hands, int base, int code) {
+		int value = Card.valueOf(code);
+		hands[base + HARD] += value;
+		if(value == 1) {
+			hands[base + ACES]++;
+		}
+		hands[base + CARDS + hands[base + COUNT]++] = code;
+	}
+
+	// same rule as HandState.isSoft
+	private static boolean isSoft(int[] hands, int base) {
+		return hands[base + ACES] == 1 && hands[base + HARD] + 10 <= 21;
+	}
+
+	private static int bestTotal(int[] hands, int base) {
+		return isSoft(hands, base) ? hands[base + HARD] + 10 : hands[base + HARD];
+	}
+
+	private static void load(HandState state, int[] hands, int base) {
+		state.set(hands[base + HARD], hands[base + ACES], hands[base + COUNT]);
+	}
+
+	private static List<Card> cards(int[] hands, int base) {
+		List<Card> cards = new ArrayList<>(hands[base + COUNT]);
+		for(int i = 0; i < hands[base + COUNT]; i++) {
+			cards.add(Card.of(hands[base + CARDS + i]));
+		}
+		return cards;
+	}
+}
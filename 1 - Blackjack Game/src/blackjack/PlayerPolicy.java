@@ -0,0 +1,28 @@
+package blackjack;
+
+import deckOfCards.Rank;
+
+/*
+ * Decides whether the player should take another card. Used by headless drivers of
+ * BlackjackModel in place of the hit/stay buttons of the GUI.
+ * Implementations are shared between worker threads, so they should not keep mutable state.
+ */
+public interface PlayerPolicy {
+
+	/*
+	 * Returns true if the player should take another card.
+	 * playerTotal is the best (highest non-busting) value of the player's hand, soft is true
+	 * when that value counts an ace as 11, and dealerUpCard is the rank of the dealer's face-up card.
+	 */
+	boolean shouldTakeCard(int playerTotal, boolean soft, Rank dealerUpCard);
+
+	/*
+	 * Policy that plays like the dealer: hit on 16 or less and on soft 17.
+	 */
+	PlayerPolicy MIMIC_DEALER = (total, soft, up) -> total <= 16 || (total == 17 && soft);
+
+	/*
+	 * Policy that never takes a card.
+	 */
+	PlayerPolicy NEVER_BUST = (total, soft, up) -> false;
+}
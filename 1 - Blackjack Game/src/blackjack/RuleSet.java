@@ -0,0 +1,216 @@
+package blackjack;
+
+import deckOfCards.Shoe;
+
+/*
+ * One variant of the house rules: whether the dealer hits soft 17, what a natural pays, the
+ * number of decks, and whether surrender and doubling down are offered. A rule set is immutable
+ * and compiles its rules once, in the constructor, into flat tables indexed by (total, soft),
+ * so the model's hot path answers every rule question with a single array read.
+ *
+ * The model itself has no double or surrender action; mayDouble, isSurrenderAllowed and
+ * SURRENDER_PAYOUT describe the rules for drivers and analyses that play those decisions.
+ *
+ * STANDARD is the rule set BlackjackModel has always used: one deck, dealer hits soft 17,
+ * naturals pay 3 to 2, no surrender and no doubling.
+ */
+public final class RuleSet {
+
+	public enum Surrender {NONE, LATE}
+	public enum DoubleRule {NONE, TEN_OR_ELEVEN, NINE_TO_ELEVEN, ANY_TWO}
+
+	/*
+	 * Net loss per unit bet when the player surrenders.
+	 */
+	public static final double SURRENDER_PAYOUT = -0.5;
+
+	// totals up to 31 are indexed, anything higher is bust whatever the rules say
+	private static final int TOTALS = 32;
+	private static final int BUST_CODE = 22;
+	private static final int NATURAL_CODE = 23;
+	private static final int CODES = 24;
+	private static final GameResult[] RESULTS = GameResult.values();
+	private static final byte[] OUTCOMES = compileOutcomes();
+
+	public static final RuleSet STANDARD = new RuleSet(true, 1.5, 1, Surrender.NONE, DoubleRule.NONE);
+
+	private final boolean dealerHitsSoft17;
+	private final double blackjackPayout;
+	private final int numDecks;
+	private final Surrender surrender;
+	private final DoubleRule doubleRule;
+
+	private final boolean[] dealerHits = new boolean[TOTALS * 2];
+	private final boolean[] mayDouble = new boolean[TOTALS * 2];
+	private final double[] payouts = new double[RESULTS.length];
+
+	public RuleSet(boolean dealerHitsSoft17, double blackjackPayout, int numDecks, Surrender surrender,
+			DoubleRule doubleRule) {
+		if(numDecks < 1) {
+			throw new IllegalArgumentException("a rule set needs at least one deck");
+		}
+		if(blackjackPayout < 1) {
+			throw new IllegalArgumentException("a natural must pay at least even money");
+		}
+		this.dealerHitsSoft17 = dealerHitsSoft17;
+		this.blackjackPayout = blackjackPayout;
+		this.numDecks = numDecks;
+		this.surrender = surrender;
+		this.doubleRule = doubleRule;
+
+		for(int total = 0; total < TOTALS; total++) {
+			dealerHits[index(total, false)] = total <= 16;
+			dealerHits[index(total, true)] = total <= 16 || (total == 17 && dealerHitsSoft17);
+			mayDouble[index(total, false)] = doubleAllowed(doubleRule, total, false);
+			mayDouble[index(total, true)] = doubleAllowed(doubleRule, total, true);
+		}
+		payouts[GameResult.NATURAL_BLACKJACK.ordinal()] = blackjackPayout;
+		payouts[GameResult.PLAYER_WON.ordinal()] = 1;
+		payouts[GameResult.PUSH.ordinal()] = 0;
+		payouts[GameResult.PLAYER_LOST.ordinal()] = -1;
+	}
+
+	public RuleSet withDealerHitsSoft17(boolean hitsSoft17) {
+		return new RuleSet(hitsSoft17, blackjackPayout, numDecks, surrender, doubleRule);
+	}
+
+	public RuleSet withBlackjackPayout(double payout) {
+		return new RuleSet(dealerHitsSoft17, payout, numDecks, surrender, doubleRule);
+	}
+
+	public RuleSet withNumDecks(int decks) {
+		return new RuleSet(dealerHitsSoft17, blackjackPayout, decks, surrender, doubleRule);
+	}
+
+	public RuleSet withSurrender(Surrender rule) {
+		return new RuleSet(dealerHitsSoft17, blackjackPayout, numDecks, rule, doubleRule);
+	}
+
+	public RuleSet withDoubleRule(DoubleRule rule) {
+		return new RuleSet(dealerHitsSoft17, blackjackPayout, numDecks, surrender, rule);
+	}
+
+	/*
+	 * Whether the dealer takes another card with this hand.
+	 */
+	public boolean dealerShouldTakeCard(int bestTotal, boolean soft) {
+		return bestTotal < TOTALS && dealerHits[index(bestTotal, soft)];
+	}
+
+	/*
+	 * Whether the player may double down on a two-card hand with this total.
+	 */
+	public boolean mayDouble(int bestTotal, boolean soft) {
+		return bestTotal < TOTALS && mayDouble[index(bestTotal, soft)];
+	}
+
+	public boolean isSurrenderAllowed() {
+		return surrender != Surrender.NONE;
+	}
+
+	/*
+	 * Outcome of a round given the final state of both hands. The same for every rule set:
+	 * a player natural wins unless the dealer has one too, a bust player loses, and otherwise 
+	 * the best totals are compared, with a dealer natural counting as 21.
+	 */
+	public GameResult gameAssessment(HandState player, HandState dealer) {
+		return RESULTS[OUTCOMES[code(player) * CODES + code(dealer)]];
+	}
+
+	/*
+	 * Net win per unit bet for a result.
+	 */
+	public double payout(GameResult result) {
+		return payouts[result.ordinal()];
+	}
+
+	public boolean dealerHitsSoft17() {
+		return dealerHitsSoft17;
+	}
+
+	public double getBlackjackPayout() {
+		return blackjackPayout;
+	}
+
+	public int getNumDecks() {
+		return numDecks;
+	}
+
+	public Surrender getSurrender() {
+		return surrender;
+	}
+
+	public DoubleRule getDoubleRule() {
+		return doubleRule;
+	}
+
+	/*
+	 * An unshuffled shoe with this rule set's number of decks.
+	 */
+	public Shoe newShoe(double penetration) {
+		return new Shoe(numDecks, penetration);
+	}
+
+	@Override
+	public String toString() {
+		return numDecks + "D " + (dealerHitsSoft17 ? "H17" : "S17") + " BJ " + blackjackPayout
+				+ " surrender " + surrender + " double " + doubleRule;
+	}
+
+	private static int index(int total, boolean soft) {
+		return soft ? total * 2 + 1 : total * 2;
+	}
+
+	private static int code(HandState hand) {
+		if(hand.isNaturalBlackjack()) {
+			return NATURAL_CODE;
+		}
+		if(hand.isBust()) {
+			return BUST_CODE;
+		}
+		return hand.getBestTotal();
+	}
+
+	private static boolean doubleAllowed(DoubleRule rule, int total, boolean soft) {
+		switch(rule) {
+		case ANY_TWO:
+			return total <= 21;
+		case NINE_TO_ELEVEN:
+			return !soft && total >= 9 && total <= 11;
+		case TEN_OR_ELEVEN:
+			return !soft && (total == 10 || total == 11);
+		default:
+			return false;
+		}
+	}
+
+	private static byte[] compileOutcomes() {
+		byte[] outcomes = new byte[CODES * CODES];
+		for(int player = 0; player < CODES; player++) {
+			for(int dealer = 0; dealer < CODES; dealer++) {
+				outcomes[player * CODES + dealer] = (byte) outcome(player, dealer).ordinal();
+			}
+		}
+		return outcomes;
+	}
+
+	private static GameResult outcome(int player, int dealer) {
+		if(player == NATURAL_CODE) {
+			return dealer == NATURAL_CODE ? GameResult.PUSH : GameResult.NATURAL_BLACKJACK;
+		}
+		if(player == BUST_CODE) {
+			return GameResult.PLAYER_LOST;
+		}
+		if(dealer == BUST_CODE) {
+			return GameResult.PLAYER_WON;
+		}
+		int dealerBest = dealer == NATURAL_CODE ? 21 : dealer;
+		if(player > dealerBest) {
+			return GameResult.PLAYER_WON;
+		}
+		if(player < dealerBest) {
+			return GameResult.PLAYER_LOST;
+		}
+		return GameResult.PUSH;
+	}
+}
@@ -4,18 +4,82 @@ package deckOfCards;
  * This class represents a playing card that would be included in 
  * a standard deck of 52 cards.  
  * 
+ * Every card also has a compact code from 0 to 51 (suit ordinal * 13 + rank ordinal, 
+ * the same order as a new Deck). Card-heavy code can store and pass codes as bytes or 
+ * ints and use the static helpers below, and Card.of returns one shared instance per code 
+ * instead of allocating a new card.
+ * 
  * @author Fawzi Emad (C)2020, University of Maryland.
  */
 public class Card {
 	
-	private Suit suit;
-	private Rank rank;
+	public static final int NUM_CARDS = 52;
+	public static final int NUM_RANKS = 13;
+	
+	private static final Rank[] RANKS = Rank.values();
+	private static final Suit[] SUITS = Suit.values();
+	private static final Card[] CARDS = new Card[NUM_CARDS];
+	private static final int[] VALUES = new int[NUM_CARDS];
+	
+	static {
+		for (int code = 0; code < NUM_CARDS; code++) {
+			CARDS[code] = new Card(RANKS[code % NUM_RANKS], SUITS[code / NUM_RANKS]);
+			VALUES[code] = RANKS[code % NUM_RANKS].getValue();
+		}
+	}
+	
+	private final Suit suit;
+	private final Rank rank;
 	
 	public Card(Rank rank, Suit suit) {
 		this.suit = suit;
 		this.rank = rank;
 	}
 	
+	/**
+	 * Returns the shared instance for a card code.
+	 * @param code a card code from 0 to 51
+	 * @return the flyweight card with that code
+	 */
+	public static Card of(int code) {
+		return CARDS[code];
+	}
+	
+	/**
+	 * Returns the shared instance for a rank and suit.
+	 */
+	public static Card of(Rank rank, Suit suit) {
+		return CARDS[encode(rank, suit)];
+	}
+	
+	/**
+	 * Returns the card code for a rank and suit.
+	 */
+	public static int encode(Rank rank, Suit suit) {
+		return suit.ordinal() * NUM_RANKS + rank.ordinal();
+	}
+	
+	/**
+	 * Returns the rank ordinal (0 for ACE through 12 for KING) of a card code.
+	 */
+	public static int rankIndexOf(int code) {
+		return code % NUM_RANKS;
+	}
+	
+	/**
+	 * Returns the rank of a card code.
+	 */
+	public static Rank rankOf(int code) {
+		return RANKS[code % NUM_RANKS];
+	}
+	
+	/**
+	 * Returns the Blackjack value of a card code, the same as rankOf(code).getValue().
+	 */
+	public static int valueOf(int code) {
+		return VALUES[code];
+	}
+	
 	public Rank getRank() {
 		return rank;
 	}
@@ -24,6 +88,13 @@ public class Card {
 		return suit;
 	}
 	
+	/**
+	 * Returns this card's code from 0 to 51.
+	 */
+	public int getCode() {
+		return encode(rank, suit);
+	}
+	
 	@Override
 	public String toString() {
 		return rank + " of " + suit;
@@ -37,4 +108,9 @@ public class Card {
 		Card card = (Card)other;
 		return card.suit == suit && card.rank == rank;
 	}
+	
+	@Override
+	public int hashCode() {
+		return getCode();
+	}
 } 
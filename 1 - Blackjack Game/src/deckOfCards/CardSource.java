@@ -0,0 +1,17 @@
+package deckOfCards;
+
+/*
+ * Anything that cards can be dealt from, either a single Deck or a multi-deck Shoe.
+ */
+public interface CardSource {
+
+	/*
+	 * Removes the next card from the source and returns it.
+	 */
+	Card dealOneCard();
+
+	/*
+	 * Returns the number of cards that can still be dealt.
+	 */
+	int cardsRemaining();
+}
@@ -0,0 +1,89 @@
+package deckOfCards;
+
+/*
+ * Card-counting state of a Shoe, updated in O(1) every time a card is dealt and reset when
+ * the shoe is shuffled. Keeps the Hi-Lo running count (2 to 6 count +1, tens and aces count -1)
+ * and how many cards of each rank and of each blackjack value are still in the shoe.
+ * All reads are plain field or array lookups, so it can be queried every hand without allocating.
+ */
+public class CountTracker {
+
+	private static final int[] HI_LO = {-1, 1, 1, 1, 1, 1, 0, 0, 0, -1, -1, -1, -1};
+
+	private final int numDecks;
+	private final int[] rankRemaining = new int[Card.NUM_RANKS];
+	private final int[] valueRemaining = new int[10];
+	private int cardsRemaining;
+	private int runningCount;
+
+	CountTracker(int numDecks) {
+		this.numDecks = numDecks;
+		reset();
+	}
+
+	/*
+	 * Puts every card back, called when the shoe is shuffled.
+	 */
+	void reset() {
+		for(int r = 0; r < Card.NUM_RANKS; r++) {
+			rankRemaining[r] = 4 * numDecks;
+		}
+		for(int v = 0; v < 9; v++) {
+			valueRemaining[v] = 4 * numDecks;
+		}
+		valueRemaining[9] = 16 * numDecks;
+		cardsRemaining = Card.NUM_CARDS * numDecks;
+		runningCount = 0;
+	}
+
+	/*
+	 * Records a dealt card by its code.
+	 */
+	void dealt(int code) {
+		int rank = Card.rankIndexOf(code);
+		rankRemaining[rank]--;
+		valueRemaining[Card.valueOf(code) - 1]--;
+		cardsRemaining--;
+		runningCount += HI_LO[rank];
+	}
+
+	public int getRunningCount() {
+		return runningCount;
+	}
+
+	/*
+	 * Running count divided by the number of decks left in the shoe.
+	 */
+	public double getTrueCount() {
+		if(cardsRemaining == 0) {
+			return 0;
+		}
+		return runningCount * (double) Card.NUM_CARDS / cardsRemaining;
+	}
+
+	/*
+	 * Cards of the given rank still in the shoe.
+	 */
+	public int getRemaining(Rank rank) {
+		return rankRemaining[rank.ordinal()];
+	}
+
+	/*
+	 * Cards of the given blackjack value (1 for aces, 10 for tens and face cards) still in the shoe.
+	 */
+	public int getRemainingByValue(int value) {
+		return valueRemaining[value - 1];
+	}
+
+	/*
+	 * Copies the remaining count of each value (index 0 for aces up to 9 for tens) into counts,
+	 * the layout used by the dealer outcome calculator.
+	 */
+	public void copyRemainingByValue(int[] counts) {
+		System.arraycopy(valueRemaining, 0, counts, 0, valueRemaining.length);
+	}
+
+	public int getCardsRemaining() {
+		return cardsRemaining;
+	}
+}
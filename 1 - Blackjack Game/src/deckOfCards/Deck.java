@@ -1,36 +1,41 @@
 package deckOfCards;
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /*
- * Wrapper class for an ArrayList of Card objects in a deck.
+ * A standard deck of 52 cards, kept as an array of card codes (see Card.of).
+ * Dealing advances an index instead of removing from the front of a list.
  */
-public class Deck {
+public class Deck implements CardSource {
 
-	ArrayList<Card> cards;
+	private final byte[] cards = new byte[Card.NUM_CARDS];
+	private int next;
 	
 	public Deck() {
-		cards = new ArrayList<>();
-		for(Suit s : Suit.values()) {
-			for(Rank r : Rank.values()) {
-				cards.add(new Card(r, s));
-			}
+		for(int code = 0; code < Card.NUM_CARDS; code++) {
+			cards[code] = (byte) code;
 		}
 	}
 	
 	/*
-	 * Calls Collections.shuffle to randomize the deck of cards reliably and predictably.
+	 * Randomizes the undealt cards reliably and predictably. Makes the same swaps as 
+	 * Collections.shuffle, so a java.util.Random with a given seed gives the same order.
 	 */
-	public void shuffle(Random randomNumberGenerator) {
-		Collections.shuffle(cards, randomNumberGenerator);
+	public void shuffle(RandomGenerator randomNumberGenerator) {
+		Shuffler.shuffle(cards, next, cards.length, randomNumberGenerator);
 	}
 	
 	/*
-	 * Pops the first card from the list and returns it. 
+	 * Returns the next undealt card. Throws IndexOutOfBoundsException once all 52 are dealt.
 	 */
 	public Card dealOneCard() {
-		return cards.remove(0);
+		if(next >= cards.length) {
+			throw new IndexOutOfBoundsException("deck is empty");
+		}
+		return Card.of(cards[next++]);
+	}
+
+	public int cardsRemaining() {
+		return cards.length - next;
 	}
 	
 }
@@ -0,0 +1,90 @@
+package deckOfCards;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.random.RandomGenerator;
+
+/*
+ * A shoe that several threads can deal from at once. The card codes are shuffled into a byte
+ * array up front and dealing only advances an atomic cursor over it, so dealOneCard never locks
+ * and two threads can never get the same card. Shuffling is not thread safe: call shuffle and
+ * prepareRound only between rounds, while nobody is dealing.
+ *
+ * Unlike Shoe there is no count tracker, since following the count would need a lock.
+ */
+public class SharedShoe implements CardSource {
+
+	private final byte[] cards;
+	private final int cutCard;
+	private final AtomicInteger next = new AtomicInteger();
+
+	/*
+	 * Creates an unshuffled shoe of numDecks decks. penetration is the fraction of the shoe
+	 * dealt before a reshuffle is due, see Shoe.
+	 */
+	public SharedShoe(int numDecks, double penetration) {
+		if(numDecks < 1) {
+			throw new IllegalArgumentException("shoe needs at least one deck");
+		}
+		if(penetration < 0 || penetration > 1) {
+			throw new IllegalArgumentException("penetration must be between 0 and 1");
+		}
+		cards = new byte[numDecks * Card.NUM_CARDS];
+		for(int i = 0; i < cards.length; i++) {
+			cards[i] = (byte) (i % Card.NUM_CARDS);
+		}
+		cutCard = (int) (penetration * cards.length);
+	}
+
+	/*
+	 * Puts every card back and shuffles the whole shoe, with the same swaps as Shoe.shuffle.
+	 */
+	public void shuffle(RandomGenerator randomNumberGenerator) {
+		Shuffler.shuffle(cards, 0, cards.length, randomNumberGenerator);
+		next.set(0);
+	}
+
+	/*
+	 * Returns the next card in the shoe. Throws IndexOutOfBoundsException if the shoe is empty.
+	 */
+	public Card dealOneCard() {
+		return Card.of(dealOneCode());
+	}
+
+	/*
+	 * Returns the code of the next card in the shoe, see Card.of. Safe to call from many threads.
+	 */
+	public int dealOneCode() {
+		int i = next.getAndIncrement();
+		if(i >= cards.length) {
+			throw new IndexOutOfBoundsException("shoe is empty");
+		}
+		return cards[i];
+	}
+
+	public boolean needsShuffle() {
+		return next.get() >= cutCard;
+	}
+
+	/*
+	 * Shuffles the shoe if the cut card has been reached. Returns true if it was shuffled.
+	 */
+	public boolean prepareRound(RandomGenerator randomNumberGenerator) {
+		if(needsShuffle()) {
+			shuffle(randomNumberGenerator);
+			return true;
+		}
+		return false;
+	}
+
+	public int cardsRemaining() {
+		return Math.max(0, cards.length - next.get());
+	}
+
+	public int cardsDealt() {
+		return Math.min(cards.length, next.get());
+	}
+
+	public int size() {
+		return cards.length;
+	}
+}
@@ -0,0 +1,136 @@
+package deckOfCards;
+
+import java.util.random.RandomGenerator;
+
+/*
+ * A dealing shoe holding one or more standard decks. Card codes live in a fixed byte array and are
+ * dealt by advancing a read index, so dealing never shifts or allocates. The cut card is
+ * placed after a fraction of the shoe (the penetration); once it has been reached
+ * needsShuffle() returns true and shuffle() mixes the same array again in place.
+ * A CountTracker follows every card dealt, see getCountTracker().
+ *
+ * A continuous shoe models a continuous shuffling machine instead: there is no cut card, and
+ * at the start of every round the cards dealt so far go back into the shoe at random positions.
+ */
+public class Shoe implements CardSource {
+
+	private final byte[] cards;
+	private final int cutCard;
+	private final boolean continuous;
+	private final CountTracker tracker;
+	private int next;
+
+	/*
+	 * Creates an unshuffled shoe of numDecks decks. penetration is the fraction of the shoe
+	 * dealt before a reshuffle is due, 0 meaning a reshuffle before every round.
+	 */
+	public Shoe(int numDecks, double penetration) {
+		this(numDecks, penetration, false);
+	}
+
+	/*
+	 * Creates a continuous shoe of numDecks decks when continuous is true, see prepareRound.
+	 */
+	public Shoe(int numDecks, boolean continuous) {
+		this(numDecks, 1, continuous);
+	}
+
+	private Shoe(int numDecks, double penetration, boolean continuous) {
+		if(numDecks < 1) {
+			throw new IllegalArgumentException("shoe needs at least one deck");
+		}
+		if(penetration < 0 || penetration > 1) {
+			throw new IllegalArgumentException("penetration must be between 0 and 1");
+		}
+		cards = new byte[numDecks * Card.NUM_CARDS];
+		for(int i = 0; i < cards.length; i++) {
+			cards[i] = (byte) (i % Card.NUM_CARDS);
+		}
+		cutCard = (int) (penetration * cards.length);
+		tracker = new CountTracker(numDecks);
+		this.continuous = continuous;
+	}
+
+	/*
+	 * Puts every card back and shuffles the whole shoe in place. Uses the same swaps as
+	 * Collections.shuffle so a given Random produces the same order as it would for a list.
+	 */
+	public void shuffle(RandomGenerator randomNumberGenerator) {
+		Shuffler.shuffle(cards, 0, cards.length, randomNumberGenerator);
+		next = 0;
+		tracker.reset();
+	}
+
+	/*
+	 * Returns the next card in the shoe. Throws IndexOutOfBoundsException if the shoe is empty.
+	 */
+	public Card dealOneCard() {
+		return Card.of(dealOneCode());
+	}
+
+	/*
+	 * Returns the code of the next card in the shoe, see Card.of.
+	 */
+	public int dealOneCode() {
+		if(next >= cards.length) {
+			throw new IndexOutOfBoundsException("shoe is empty");
+		}
+		int code = cards[next++];
+		tracker.dealt(code);
+		return code;
+	}
+
+	/*
+	 * True once the cut card has been reached and the shoe should be shuffled before the next round.
+	 * Never true for a continuous shoe.
+	 */
+	public boolean needsShuffle() {
+		return !continuous && next >= cutCard;
+	}
+
+	/*
+	 * Gets the shoe ready for a round. A continuous shoe mixes the cards dealt since the last round
+	 * back in, at a cost proportional to the number of those cards. Otherwise the whole shoe is
+	 * shuffled if the cut card has been reached. Returns true if the shoe was fully shuffled.
+	 */
+	public boolean prepareRound(RandomGenerator randomNumberGenerator) {
+		if(continuous) {
+			Shuffler.reinsert(cards, next, cards.length, randomNumberGenerator);
+			next = 0;
+			tracker.reset();
+			return false;
+		}
+		if(needsShuffle()) {
+			shuffle(randomNumberGenerator);
+			return true;
+		}
+		return false;
+	}
+
+	public boolean isContinuous() {
+		return continuous;
+	}
+
+	/*
+	 * Running count, true count and remaining cards of this shoe, updated as cards are dealt.
+	 */
+	public CountTracker getCountTracker() {
+		return tracker;
+	}
+
+	public int cardsRemaining() {
+		return cards.length - next;
+	}
+
+	public int cardsDealt() {
+		return next;
+	}
+
+	public int size() {
+		return cards.length;
+	}
+
+	public int getNumDecks() {
+		return cards.length / Card.NUM_CARDS;
+	}
+}
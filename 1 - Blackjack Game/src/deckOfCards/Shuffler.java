@@ -0,0 +1,51 @@
+package deckOfCards;
+
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/*
+ * Shuffles arrays of card codes in place. Any RandomGenerator can drive it: java.util.Random,
+ * SplittableRandom, or the JDK's xoshiro and LXM generators from RandomGenerator.of(name).
+ * The swaps are the same ones Collections.shuffle makes on a list, so a java.util.Random with a
+ * given seed produces exactly the order it always has.
+ */
+public class Shuffler {
+
+	private Shuffler() {
+	}
+
+	/*
+	 * Fisher-Yates shuffle of cards[from, to).
+	 */
+	public static void shuffle(byte[] cards, int from, int to, RandomGenerator rng) {
+		for(int i = to - from; i > 1; i--) {
+			swap(cards, from + i - 1, from + rng.nextInt(i));
+		}
+	}
+
+	/*
+	 * Puts the cards of cards[0, dealt) back into cards[0, to) at random positions, the way a
+	 * continuous shuffling machine mixes discards back in. These are the first dealt steps of a
+	 * forward Fisher-Yates pass, so each slot in front is drawn uniformly from all the cards
+	 * while the rest of the undealt cards mostly keep their order. Costs O(dealt).
+	 */
+	public static void reinsert(byte[] cards, int dealt, int to, RandomGenerator rng) {
+		for(int i = 0; i < dealt; i++) {
+			swap(cards, i, i + rng.nextInt(to - i));
+		}
+	}
+
+	/*
+	 * Returns a generator by JDK algorithm name, for example "Xoshiro256PlusPlus" or "L64X128MixRandom",
+	 * seeded so that the same seed always gives the same stream.
+	 */
+	public static RandomGenerator generator(String algorithm, long seed) {
+		return RandomGeneratorFactory.of(algorithm).create(seed);
+	}
+
+	private static void swap(byte[] cards, int i, int j) {
+		byte tmp = cards[i];
+		cards[i] = cards[j];
+		cards[j] = tmp;
+	}
+}
@@ -0,0 +1,143 @@
+package history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+import blackjack.GameResult;
+
+/*
+ * Reads a store written by ColumnarResultWriter. Every column file is memory-mapped read-only
+ * once; the row accessors and the scans read straight from the mapping, so nothing is copied
+ * onto the heap. A single mapping is limited to 2 GB, so a store holds at most
+ * Integer.MAX_VALUE / INITIAL_CARDS rows.
+ */
+public class ColumnarResultReader implements AutoCloseable {
+
+	private static final GameResult[] RESULTS = GameResult.values();
+
+	private final FileChannel[] channels = new FileChannel[ColumnarResultWriter.COLUMN_FILES.length];
+	private final MappedByteBuffer[] columns = new MappedByteBuffer[ColumnarResultWriter.COLUMN_FILES.length];
+	private final int rows;
+
+	public ColumnarResultReader(Path directory) throws IOException {
+		long storedRows;
+		try(FileChannel meta = FileChannel.open(directory.resolve(ColumnarResultWriter.META_FILE),
+				StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(16);
+			while(header.hasRemaining()) {
+				if(meta.read(header) < 0) {
+					break;
+				}
+			}
+			header.flip();
+			if(header.remaining() < 16 || header.getInt() != ColumnarResultWriter.MAGIC) {
+				throw new IOException("not a columnar result store: " + directory);
+			}
+			int version = header.getInt();
+			if(version != ColumnarResultWriter.VERSION) {
+				throw new IOException("unsupported columnar result store version " + version);
+			}
+			storedRows = header.getLong();
+		}
+		if(storedRows > Integer.MAX_VALUE / ColumnarResultWriter.INITIAL_CARDS) {
+			throw new IOException("store too large to map: " + storedRows + " rows");
+		}
+		rows = (int) storedRows;
+		for(int c = 0; c < columns.length; c++) {
+			channels[c] = FileChannel.open(directory.resolve(ColumnarResultWriter.COLUMN_FILES[c]),
+					StandardOpenOption.READ);
+			long size = (long) rows * ColumnarResultWriter.COLUMN_WIDTHS[c];
+			if(channels[c].size() < size) {
+				throw new IOException("column " + ColumnarResultWriter.COLUMN_FILES[c] + " is truncated");
+			}
+			columns[c] = channels[c].map(FileChannel.MapMode.READ_ONLY, 0, size);
+		}
+	}
+
+	public int getRows() {
+		return rows;
+	}
+
+	/*
+	 * Code of initial card i (0 to INITIAL_CARDS - 1) of a row, in the order they were dealt.
+	 */
+	public int getInitialCard(int row, int i) {
+		return columns[ColumnarResultWriter.CARDS].get(row * ColumnarResultWriter.INITIAL_CARDS + i);
+	}
+
+	public int getHits(int row) {
+		return columns[ColumnarResultWriter.HITS].get(row);
+	}
+
+	public int getPlayerTotal(int row) {
+		return columns[ColumnarResultWriter.PLAYER_TOTAL].get(row);
+	}
+
+	public int getDealerTotal(int row) {
+		return columns[ColumnarResultWriter.DEALER_TOTAL].get(row);
+	}
+
+	public GameResult getResult(int row) {
+		return RESULTS[columns[ColumnarResultWriter.RESULT].get(row)];
+	}
+
+	public int getBet(int row) {
+		return columns[ColumnarResultWriter.BET].getInt(row * 4);
+	}
+
+	/*
+	 * Read-only view of the result column, one GameResult ordinal per row, for custom scans.
+	 */
+	public ByteBuffer getResultColumn() {
+		return columns[ColumnarResultWriter.RESULT].asReadOnlyBuffer();
+	}
+
+	/*
+	 * Number of rows with each result, indexed by GameResult ordinal. Reads only the result column.
+	 */
+	public long[] countResults() {
+		long[] counts = new long[RESULTS.length];
+		MappedByteBuffer results = columns[ColumnarResultWriter.RESULT];
+		for(int row = 0; row < rows; row++) {
+			counts[results.get(row)]++;
+		}
+		return counts;
+	}
+
+	/*
+	 * Sum of the bets of all rows. Reads only the bet column.
+	 */
+	public long totalBet() {
+		long total = 0;
+		MappedByteBuffer bets = columns[ColumnarResultWriter.BET];
+		for(int row = 0; row < rows; row++) {
+			total += bets.getInt(row * 4);
+		}
+		return total;
+	}
+
+	@Override
+	public void close() throws IOException {
+		for(FileChannel channel : channels) {
+			channel.close();
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		try(ColumnarResultReader reader = new ColumnarResultReader(Paths.get(args[0]))) {
+			long start = System.nanoTime();
+			long[] counts = reader.countResults();
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.println(reader.getRows() + " rows, total bet " + reader.totalBet());
+			for(GameResult result : RESULTS) {
+				System.out.println(result + "=" + counts[result.ordinal()]);
+			}
+			System.out.printf("result scan %.3f s%n", seconds);
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+import blackjack.GameResult;
+
+/*
+ * Writes one row per simulated hand into a directory of column files, one file per field, so an
+ * analysis that needs only the results reads only the result column. Rows are collected in heap
+ * arrays and every BATCH_ROWS rows they are copied with one bulk put into each column's current
+ * mapping. A mapping covers MAP_ROWS rows, so a column file is mapped again only once every
+ * MAP_ROWS / BATCH_ROWS flushes, and it grows a mapping at a time: a column file can be longer than
+ * its rows, the row count in the meta file is what counts. The meta file is rewritten on every
+ * flush through a temporary file and an atomic move, so a reader never sees it half written.
+ *
+ * Columns, fixed width per row:
+ *   cards.col         4 bytes, the initial card codes in the order they were dealt 
+ *                     (dealer, dealer, player, player)
+ *   hits.col          1 byte, the number of cards the player took (the player always stands after)
+ *   player_total.col  1 byte, the player's final best total
+ *   dealer_total.col  1 byte, the dealer's final best total
+ *   result.col        1 byte, the GameResult ordinal
+ *   bet.col           4 bytes, the bet as a big-endian int
+ * Meta file store.meta: int MAGIC, int VERSION, long rows.
+ *
+ * Appends are synchronized so several simulation threads can share one store.
+ */
+public class ColumnarResultWriter implements AutoCloseable {
+
+	public static final int MAGIC = 0x424A4353; // "BJCS"
+	public static final int VERSION = 1;
+	public static final int INITIAL_CARDS = 4;
+
+	static final String META_FILE = "store.meta";
+	static final String[] COLUMN_FILES = {"cards.col", "hits.col", "player_total.col", "dealer_total.col",
+			"result.col", "bet.col"};
+	static final int[] COLUMN_WIDTHS = {INITIAL_CARDS, 1, 1, 1, 1, 4};
+	static final int CARDS = 0;
+	static final int HITS = 1;
+	static final int PLAYER_TOTAL = 2;
+	static final int DEALER_TOTAL = 3;
+	static final int RESULT = 4;
+	static final int BET = 5;
+
+	private static final int BATCH_ROWS = 1 << 16;
+	private static final int MAP_ROWS = 1 << 20;
+	private static final String META_TEMP_FILE = META_FILE + ".tmp";
+
+	private final Path directory;
+	private final FileChannel[] channels = new FileChannel[COLUMN_FILES.length];
+	private final ByteBuffer[] batch = new ByteBuffer[COLUMN_FILES.length];
+	private final MappedByteBuffer[] regions = new MappedByteBuffer[COLUMN_FILES.length];
+	private final long[] regionEnds = new long[COLUMN_FILES.length];
+	private long rows;
+	private int batchRows;
+
+	/*
+	 * Creates the directory if needed and starts a new store in it, replacing any old one.
+	 */
+	public ColumnarResultWriter(Path directory) throws IOException {
+		this.directory = directory;
+		Files.createDirectories(directory);
+		for(int c = 0; c < COLUMN_FILES.length; c++) {
+			channels[c] = FileChannel.open(directory.resolve(COLUMN_FILES[c]), StandardOpenOption.CREATE,
+					StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+			batch[c] = ByteBuffer.allocate(BATCH_ROWS * COLUMN_WIDTHS[c]);
+		}
+		writeMeta();
+	}
+
+	/*
+	 * Adds one hand. initialCards holds the first INITIAL_CARDS card codes of the round.
+	 */
+	public synchronized void append(byte[] initialCards, int hits, int playerTotal, int dealerTotal,
+			GameResult result, int bet) throws IOException {
+		batch[CARDS].put(initialCards, 0, INITIAL_CARDS);
+		batch[HITS].put((byte) hits);
+		batch[PLAYER_TOTAL].put((byte) playerTotal);
+		batch[DEALER_TOTAL].put((byte) dealerTotal);
+		batch[RESULT].put((byte) result.ordinal());
+		batch[BET].putInt(bet);
+		if(++batchRows == BATCH_ROWS) {
+			flush();
+		}
+	}
+
+	/*
+	 * Copies the buffered rows into the column mappings and updates the row count.
+	 */
+	public synchronized void flush() throws IOException {
+		if(batchRows == 0) {
+			return;
+		}
+		for(int c = 0; c < COLUMN_FILES.length; c++) {
+			ByteBuffer rowsToWrite = batch[c].flip();
+			while(rowsToWrite.hasRemaining()) {
+				if(regions[c] == null || !regions[c].hasRemaining()) {
+					long size = (long) MAP_ROWS * COLUMN_WIDTHS[c];
+					regions[c] = channels[c].map(FileChannel.MapMode.READ_WRITE, regionEnds[c], size);
+					regionEnds[c] += size;
+				}
+				int length = Math.min(rowsToWrite.remaining(), regions[c].remaining());
+				regions[c].put(rowsToWrite.slice(rowsToWrite.position(), length));
+				rowsToWrite.position(rowsToWrite.position() + length);
+			}
+			batch[c].clear();
+		}
+		rows += batchRows;
+		batchRows = 0;
+		writeMeta();
+	}
+
+	public synchronized long getRowsWritten() {
+		return rows + batchRows;
+	}
+
+	private void writeMeta() throws IOException {
+		ByteBuffer meta = ByteBuffer.allocate(16).putInt(MAGIC).putInt(VERSION).putLong(rows).flip();
+		Path temp = directory.resolve(META_TEMP_FILE);
+		try(FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while(meta.hasRemaining()) {
+				channel.write(meta);
+			}
+		}
+		Files.move(temp, directory.resolve(META_FILE), StandardCopyOption.ATOMIC_MOVE,
+				StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		flush();
+		for(int c = 0; c < COLUMN_FILES.length; c++) {
+			if(regions[c] != null) {
+				regions[c].force();
+			}
+			channels[c].force(false);
+			channels[c].close();
+		}
+	}
+}
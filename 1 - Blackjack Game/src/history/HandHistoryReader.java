@@ -0,0 +1,109 @@
+package history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import blackjack.GameResult;
+
+/*
+ * Reads a log written by HandHistoryWriter one record at a time. The reader is a cursor:
+ * next() loads the following record into reusable arrays, so reading allocates nothing per round.
+ */
+public class HandHistoryReader implements AutoCloseable {
+
+	private static final int BUFFER_SIZE = 1 << 22;
+	private static final GameResult[] RESULTS = GameResult.values();
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private final byte[] cards = new byte[256];
+	private final byte[] actions = new byte[256];
+	private long roundId;
+	private GameResult result;
+	private int numCards;
+	private int numActions;
+
+	public HandHistoryReader(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.READ);
+		buffer.limit(0);
+		if(!fill(8) || buffer.getInt() != HandHistoryWriter.MAGIC) {
+			throw new IOException("not a hand history file: " + file);
+		}
+		int version = buffer.getInt();
+		if(version != HandHistoryWriter.VERSION) {
+			throw new IOException("unsupported hand history version " + version);
+		}
+	}
+
+	/*
+	 * Makes sure at least n bytes are buffered, returns false at the end of the file.
+	 */
+	private boolean fill(int n) throws IOException {
+		if(buffer.remaining() >= n) {
+			return true;
+		}
+		buffer.compact();
+		while(buffer.position() < n) {
+			if(channel.read(buffer) < 0) {
+				buffer.flip();
+				return false;
+			}
+		}
+		buffer.flip();
+		return true;
+	}
+
+	/*
+	 * Moves to the next record, returns false when there are no more.
+	 */
+	public boolean next() throws IOException {
+		if(!fill(HandHistoryWriter.RECORD_HEADER)) {
+			if(buffer.hasRemaining()) {
+				throw new IOException("truncated record at end of log");
+			}
+			return false;
+		}
+		roundId = buffer.getLong();
+		result = RESULTS[buffer.get()];
+		numCards = buffer.get() & 0xFF;
+		numActions = buffer.get() & 0xFF;
+		if(!fill(numCards + numActions)) {
+			throw new IOException("truncated record at end of log");
+		}
+		buffer.get(cards, 0, numCards);
+		buffer.get(actions, 0, numActions);
+		return true;
+	}
+
+	public long getRoundId() {
+		return roundId;
+	}
+
+	public GameResult getResult() {
+		return result;
+	}
+
+	public int getNumCards() {
+		return numCards;
+	}
+
+	public int getCard(int i) {
+		return cards[i];
+	}
+
+	public int getNumActions() {
+		return numActions;
+	}
+
+	public byte getAction(int i) {
+		return actions[i];
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
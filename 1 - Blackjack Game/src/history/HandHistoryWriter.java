@@ -0,0 +1,83 @@
+package history;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import blackjack.GameResult;
+
+/*
+ * Append-only binary log of blackjack rounds. Records are collected in a direct buffer and
+ * written to the file channel in large batches, and the file is forced to disk on close.
+ *
+ * File layout: int MAGIC, int VERSION, then records of
+ *   long roundId, byte result (GameResult ordinal), byte card count, byte action count,
+ *   the card codes in the order they were dealt, then the player's actions (ACTION_HIT or ACTION_STAND).
+ * Appends are synchronized so several tables can share one log.
+ */
+public class HandHistoryWriter implements AutoCloseable {
+
+	public static final int MAGIC = 0x424A484C; // "BJHL"
+	public static final int VERSION = 1;
+	public static final byte ACTION_STAND = 0;
+	public static final byte ACTION_HIT = 1;
+
+	static final int RECORD_HEADER = 11;
+	private static final int BUFFER_SIZE = 1 << 20;
+
+	private final FileChannel channel;
+	private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+	private long records;
+
+	/*
+	 * Creates the file, or appends to it if it already holds a log.
+	 */
+	public HandHistoryWriter(Path file) throws IOException {
+		channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.APPEND);
+		if(channel.size() == 0) {
+			buffer.putInt(MAGIC).putInt(VERSION);
+		}
+	}
+
+	/*
+	 * Adds one round to the log.
+	 */
+	public synchronized void append(long roundId, byte[] cards, int numCards, byte[] actions, int numActions,
+			GameResult result) throws IOException {
+		if(buffer.remaining() < RECORD_HEADER + numCards + numActions) {
+			flush();
+		}
+		buffer.putLong(roundId);
+		buffer.put((byte) result.ordinal());
+		buffer.put((byte) numCards);
+		buffer.put((byte) numActions);
+		buffer.put(cards, 0, numCards);
+		buffer.put(actions, 0, numActions);
+		records++;
+	}
+
+	/*
+	 * Writes everything buffered so far to the channel.
+	 */
+	public synchronized void flush() throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
+		buffer.clear();
+	}
+
+	public synchronized long getRecordsWritten() {
+		return records;
+	}
+
+	@Override
+	public synchronized void close() throws IOException {
+		flush();
+		channel.force(false);
+		channel.close();
+	}
+}
@@ -0,0 +1,61 @@
+package history;
+
+import java.io.IOException;
+
+import blackjack.GameResult;
+import deckOfCards.Card;
+import deckOfCards.CardSource;
+
+/*
+ * Sits between a BlackjackModel and its shoe (see BlackjackModel.setCardSource) and remembers
+ * the codes of the cards dealt in the current round, together with the player's actions as the
+ * driver reports them. finishRound writes the round to a HandHistoryWriter.
+ */
+public class HandRecorder implements CardSource {
+
+	private static final int MAX_CARDS = 64;
+
+	private final CardSource source;
+	private final HandHistoryWriter writer;
+	private final byte[] cards = new byte[MAX_CARDS];
+	private final byte[] actions = new byte[MAX_CARDS];
+	private int numCards;
+	private int numActions;
+
+	public HandRecorder(CardSource source, HandHistoryWriter writer) {
+		this.source = source;
+		this.writer = writer;
+	}
+
+	@Override
+	public Card dealOneCard() {
+		Card card = source.dealOneCard();
+		cards[numCards++] = (byte) card.getCode();
+		return card;
+	}
+
+	@Override
+	public int cardsRemaining() {
+		return source.cardsRemaining();
+	}
+
+	/*
+	 * Forgets the previous round, call before the first card of a round is dealt.
+	 */
+	public void startRound() {
+		numCards = 0;
+		numActions = 0;
+	}
+
+	public void recordHit() {
+		actions[numActions++] = HandHistoryWriter.ACTION_HIT;
+	}
+
+	public void recordStand() {
+		actions[numActions++] = HandHistoryWriter.ACTION_STAND;
+	}
+
+	public void finishRound(long roundId, GameResult result) throws IOException {
+		writer.append(roundId, cards, numCards, actions, numActions, result);
+	}
+}
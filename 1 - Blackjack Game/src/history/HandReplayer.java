@@ -0,0 +1,118 @@
+package history;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import blackjack.BlackjackModel;
+import blackjack.GameResult;
+import deckOfCards.Card;
+import deckOfCards.CardSource;
+
+/*
+ * Plays every round of a hand history log through BlackjackModel again, dealing the recorded
+ * cards and applying the recorded actions, and checks that the model reaches the recorded result.
+ */
+public class HandReplayer {
+
+	private long rounds;
+	private long mismatches;
+	private long firstMismatch = -1;
+
+	/*
+	 * Replays a whole log. Returns the number of rounds whose result did not match, 
+	 * including rounds that needed more cards than were recorded.
+	 */
+	public long replay(Path file) throws IOException {
+		BlackjackModel game = new BlackjackModel();
+		try(HandHistoryReader reader = new HandHistoryReader(file)) {
+			RecordedCards source = new RecordedCards(reader);
+			game.setCardSource(source);
+			while(reader.next()) {
+				source.rewind();
+				GameResult result;
+				try {
+					result = replayRound(game, reader);
+				} catch(IndexOutOfBoundsException e) {
+					result = null;
+				}
+				rounds++;
+				if(result != reader.getResult()) {
+					if(mismatches == 0) {
+						firstMismatch = reader.getRoundId();
+					}
+					mismatches++;
+				}
+			}
+		}
+		return mismatches;
+	}
+
+	private static GameResult replayRound(BlackjackModel game, HandHistoryReader reader) {
+		game.initialDealerCards();
+		game.initialPlayerCards();
+		for(int i = 0; i < reader.getNumActions(); i++) {
+			if(reader.getAction(i) != HandHistoryWriter.ACTION_HIT) {
+				break;
+			}
+			game.playerTakeCard();
+		}
+		while(game.dealerShouldTakeCard()) {
+			game.dealerTakeCard();
+		}
+		return game.gameAssessment();
+	}
+
+	public long getRounds() {
+		return rounds;
+	}
+
+	public long getMismatches() {
+		return mismatches;
+	}
+
+	/*
+	 * Round id of the first record that did not replay to its recorded result, or -1.
+	 */
+	public long getFirstMismatch() {
+		return firstMismatch;
+	}
+
+	/*
+	 * Deals the cards of the record the reader is currently on.
+	 */
+	private static class RecordedCards implements CardSource {
+		private final HandHistoryReader reader;
+		private int next;
+
+		RecordedCards(HandHistoryReader reader) {
+			this.reader = reader;
+		}
+
+		void rewind() {
+			next = 0;
+		}
+
+		@Override
+		public Card dealOneCard() {
+			if(next >= reader.getNumCards()) {
+				throw new IndexOutOfBoundsException("round " + reader.getRoundId() + " ran out of recorded cards");
+			}
+			return Card.of(reader.getCard(next++));
+		}
+
+		@Override
+		public int cardsRemaining() {
+			return reader.getNumCards() - next;
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		HandReplayer replayer = new HandReplayer();
+		long start = System.nanoTime();
+		replayer.replay(Paths.get(args[0]));
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%d rounds, %d mismatches, %.0f rounds/s%n", replayer.getRounds(),
+				replayer.getMismatches(), replayer.getRounds() / seconds);
+	}
+}
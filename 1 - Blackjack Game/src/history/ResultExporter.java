@@ -0,0 +1,107 @@
+package history;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+
+import blackjack.BlackjackModel;
+import blackjack.GameResult;
+import blackjack.HandAssessment;
+import blackjack.HandState;
+import blackjack.PlayerPolicy;
+import deckOfCards.Card;
+import deckOfCards.CardSource;
+import deckOfCards.Rank;
+import deckOfCards.Shoe;
+
+/*
+ * Simulates hands the way MonteCarloSimulator.playHand does and writes one row per hand to a
+ * ColumnarResultWriter, for analyses that need more than the totals of a SimulationResult.
+ */
+public class ResultExporter {
+
+	private final BlackjackModel game = new BlackjackModel();
+	private final Shoe shoe;
+	private final InitialCards initialCards;
+	private final PlayerPolicy policy;
+
+	public ResultExporter(int numDecks, double penetration, PlayerPolicy policy) {
+		shoe = new Shoe(numDecks, penetration);
+		initialCards = new InitialCards(shoe);
+		this.policy = policy;
+		game.setShoe(shoe);
+		game.setCardSource(initialCards);
+	}
+
+	/*
+	 * Plays the given number of hands at a flat bet of one unit and appends them to the writer.
+	 */
+	public void export(long hands, long seed, ColumnarResultWriter writer) throws IOException {
+		SplittableRandom random = new SplittableRandom(seed);
+		shoe.shuffle(random);
+		for(long h = 0; h < hands; h++) {
+			game.shuffleShoeIfNeeded(random);
+			initialCards.startRound();
+			game.initialDealerCards();
+			game.initialPlayerCards();
+
+			Rank upCard = game.getDealerUpCard().getRank();
+			HandState player = game.getPlayerHandState();
+			int hits = 0;
+			while(player.assess() == HandAssessment.NORMAL
+					&& policy.shouldTakeCard(player.getBestTotal(), player.isSoft(), upCard)) {
+				game.playerTakeCard();
+				hits++;
+			}
+			while(game.dealerShouldTakeCard()) {
+				game.dealerTakeCard();
+			}
+			GameResult result = game.gameAssessment();
+			writer.append(initialCards.codes, hits, player.getBestTotal(),
+					game.getDealerHandState().getBestTotal(), result, 1);
+		}
+	}
+
+	/*
+	 * Passes cards through from the shoe and remembers the codes of the first few of each round.
+	 */
+	private static class InitialCards implements CardSource {
+		private final CardSource source;
+		private final byte[] codes = new byte[ColumnarResultWriter.INITIAL_CARDS];
+		private int dealt;
+
+		InitialCards(CardSource source) {
+			this.source = source;
+		}
+
+		void startRound() {
+			dealt = 0;
+		}
+
+		@Override
+		public Card dealOneCard() {
+			Card card = source.dealOneCard();
+			if(dealt < codes.length) {
+				codes[dealt++] = (byte) card.getCode();
+			}
+			return card;
+		}
+
+		@Override
+		public int cardsRemaining() {
+			return source.cardsRemaining();
+		}
+	}
+
+	public static void main(String[] args) throws IOException {
+		long hands = args.length > 1 ? Long.parseLong(args[1]) : 10_000_000L;
+		long seed = args.length > 2 ? Long.parseLong(args[2]) : 132L;
+		ResultExporter exporter = new ResultExporter(6, 0.75, PlayerPolicy.MIMIC_DEALER);
+		long start = System.nanoTime();
+		try(ColumnarResultWriter writer = new ColumnarResultWriter(Paths.get(args[0]))) {
+			exporter.export(hands, seed, writer);
+		}
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.printf("%d hands written, %.0f hands/s%n", hands, hands / seconds);
+	}
+}
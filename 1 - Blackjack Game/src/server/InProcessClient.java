@@ -0,0 +1,40 @@
+package server;
+
+import blackjack.PlayerPolicy;
+import deckOfCards.Rank;
+
+/*
+ * Talks to a TableSession through the same line protocol as a socket client, without a socket.
+ * Used by tests and the load test.
+ */
+public class InProcessClient {
+
+	private final TableSession session;
+
+	public InProcessClient(TableSession session) {
+		this.session = session;
+	}
+
+	public String send(String command) {
+		return session.handle(command);
+	}
+
+	/*
+	 * Plays one round with the given policy and returns the final RESULT line.
+	 */
+	public String playRound(PlayerPolicy policy) {
+		String reply = send("DEAL");
+		while(reply.startsWith("PLAYER ")) {
+			String[] parts = reply.split(" ");
+			int total = Integer.parseInt(parts[1]);
+			boolean soft = parts[2].equals("SOFT");
+			Rank up = Rank.valueOf(parts[4]);
+			reply = send(policy.shouldTakeCard(total, soft, up) ? "HIT" : "STAND");
+		}
+		return reply;
+	}
+
+	public void close() {
+		send("QUIT");
+	}
+}
@@ -0,0 +1,42 @@
+package server;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import blackjack.PlayerPolicy;
+import history.HandHistoryWriter;
+
+/*
+ * Opens many in-process tables at once, each played by its own thread, and prints the
+ * server metrics. Arguments: number of tables, rounds per table, and optionally a file to
+ * log the hand history to.
+ */
+public class LoadTest {
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int tables = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+		int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+		HandHistoryWriter history = args.length > 2 ? new HandHistoryWriter(Paths.get(args[2])) : null;
+		try(TableServer server = new TableServer(0, 132L, 6, 0.75, history)) {
+			ExecutorService players = TableServer.newTableExecutor();
+			long start = System.nanoTime();
+			for(int t = 0; t < tables; t++) {
+				InProcessClient client = server.openLocalTable();
+				players.submit(() -> {
+					for(int r = 0; r < rounds; r++) {
+						client.playRound(PlayerPolicy.MIMIC_DEALER);
+					}
+					client.close();
+				});
+			}
+			players.shutdown();
+			players.awaitTermination(1, TimeUnit.HOURS);
+			double seconds = (System.nanoTime() - start) / 1e9;
+			System.out.println(server.getMetrics());
+			System.out.printf("%d tables, %.2f s, %.0f rounds/s%n", tables, seconds,
+					server.getMetrics().getRounds() / seconds);
+		}
+	}
+}
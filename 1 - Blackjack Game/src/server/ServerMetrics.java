@@ -0,0 +1,100 @@
+package server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Counters and an action latency histogram for the table server. Latencies go into
+ * power-of-two nanosecond buckets, which is coarse but cheap enough to record on every action.
+ */
+public class ServerMetrics {
+
+	private final long startNanos = System.nanoTime();
+	private final LongAdder tablesOpened = new LongAdder();
+	private final LongAdder tablesClosed = new LongAdder();
+	private final LongAdder rounds = new LongAdder();
+	private final LongAdder actions = new LongAdder();
+	private final AtomicLongArray latencyBuckets = new AtomicLongArray(64);
+
+	void tableOpened() {
+		tablesOpened.increment();
+	}
+
+	void tableClosed() {
+		tablesClosed.increment();
+	}
+
+	void roundFinished() {
+		rounds.increment();
+	}
+
+	void actionHandled(long nanos) {
+		actions.increment();
+		latencyBuckets.incrementAndGet(63 - Long.numberOfLeadingZeros(Math.max(1, nanos)));
+	}
+
+	public long getActiveTables() {
+		return tablesOpened.sum() - tablesClosed.sum();
+	}
+
+	/*
+	 * Tables opened since the server started, including those already closed.
+	 */
+	public long getTablesOpened() {
+		return tablesOpened.sum();
+	}
+
+	public long getRounds() {
+		return rounds.sum();
+	}
+
+	public long getActions() {
+		return actions.sum();
+	}
+
+	/*
+	 * Rounds finished per second since the server started, summed over all tables.
+	 */
+	public double getRoundsPerSecond() {
+		return rounds.sum() / secondsSinceStart();
+	}
+
+	/*
+	 * Tables opened per second since the server started.
+	 */
+	public double getTablesPerSecond() {
+		return tablesOpened.sum() / secondsSinceStart();
+	}
+
+	private double secondsSinceStart() {
+		return (System.nanoTime() - startNanos) / 1e9;
+	}
+
+	/*
+	 * Upper bound of the bucket holding the given fraction (0 to 1) of action latencies, in nanoseconds.
+	 */
+	public long getLatencyPercentile(double fraction) {
+		long total = 0;
+		for(int i = 0; i < 64; i++) {
+			total += latencyBuckets.get(i);
+		}
+		long target = (long) Math.ceil(total * fraction);
+		long seen = 0;
+		for(int i = 0; i < 64; i++) {
+			seen += latencyBuckets.get(i);
+			if(seen >= target && seen > 0) {
+				return (2L << i) - 1;
+			}
+		}
+		return 0;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("tables=%d opened=%d tables/s=%.1f rounds=%d actions=%d rounds/s=%.0f"
+				+ " latency p50<=%dns p99<=%dns",
+				getActiveTables(), getTablesOpened(), getTablesPerSecond(), getRounds(), getActions(),
+				getRoundsPerSecond(),
+				getLatencyPercentile(0.5), getLatencyPercentile(0.99));
+	}
+}
@@ -0,0 +1,176 @@
+package server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Paths;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import history.HandHistoryWriter;
+import simulation.SplittableRandomAdapter;
+
+/*
+ * Headless blackjack server. Every connection on the loopback socket gets its own TableSession
+ * and its own thread, speaking the line protocol described in TableSession.
+ * Threads are virtual threads when the JVM supports them (Java 21 and later), so tens of
+ * thousands of mostly idle tables cost little; older JVMs fall back to a cached thread pool.
+ * When a HandHistoryWriter is given, all tables log their rounds to it.
+ * close() stops accepting, closes every open connection and waits for their tables to finish
+ * before closing the history.
+ */
+public class TableServer implements AutoCloseable {
+
+	private final ServerSocket serverSocket;
+	private final ExecutorService executor = newTableExecutor();
+	private final ServerMetrics metrics = new ServerMetrics();
+	private final SplittableRandom seeds;
+	private final AtomicLong nextTable = new AtomicLong();
+	private final int numDecks;
+	private final double penetration;
+	private final HandHistoryWriter history;
+	private final Set<Socket> connections = ConcurrentHashMap.newKeySet();
+
+	/*
+	 * Starts listening on the given loopback port (0 picks a free port).
+	 */
+	public TableServer(int port, long seed, int numDecks, double penetration) throws IOException {
+		this(port, seed, numDecks, penetration, null);
+	}
+
+	public TableServer(int port, long seed, int numDecks, double penetration, HandHistoryWriter history)
+			throws IOException {
+		this.history = history;
+		this.serverSocket = new ServerSocket(port, 1024, InetAddress.getLoopbackAddress());
+		this.seeds = new SplittableRandom(seed);
+		this.numDecks = numDecks;
+		this.penetration = penetration;
+		executor.submit(this::acceptLoop);
+	}
+
+	/*
+	 * Executor that runs each task on a new virtual thread if available, otherwise on a cached pool.
+	 */
+	static ExecutorService newTableExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch(ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+
+	public int getPort() {
+		return serverSocket.getLocalPort();
+	}
+
+	public ServerMetrics getMetrics() {
+		return metrics;
+	}
+
+	/*
+	 * Opens a table for an in-process client, sharing the server's seeds and metrics.
+	 */
+	public InProcessClient openLocalTable() {
+		return new InProcessClient(newSession());
+	}
+
+	private synchronized TableSession newSession() {
+		return new TableSession(new SplittableRandomAdapter(seeds.split()), numDecks, penetration, metrics,
+				history, nextTable.getAndIncrement());
+	}
+
+	private void acceptLoop() {
+		while(!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				connections.add(socket);
+				if(serverSocket.isClosed()) {
+					closeQuietly(socket); //accepted while close() was running, it may have missed this one
+				} else {
+					executor.submit(() -> serve(socket));
+				}
+			} catch(IOException e) {
+				if(!serverSocket.isClosed()) {
+					System.err.println("accept failed: " + e.getMessage());
+				}
+			}
+		}
+	}
+
+	private void serve(Socket socket) {
+		TableSession session = newSession();
+		try(Socket s = socket;
+				BufferedReader in = new BufferedReader(new InputStreamReader(s.getInputStream()));
+				PrintWriter out = new PrintWriter(s.getOutputStream())) {
+			String line;
+			while(!session.isClosed() && (line = in.readLine()) != null) {
+				out.println(session.handle(line));
+				out.flush();
+			}
+		} catch(IOException e) {
+			// client went away, nothing to clean up beyond the session
+		} finally {
+			connections.remove(socket);
+			session.close();
+		}
+	}
+
+	private static void closeQuietly(Socket socket) {
+		try {
+			socket.close();
+		} catch(IOException e) {
+			// closing anyway
+		}
+	}
+
+	public long getTablesOpened() {
+		return nextTable.get();
+	}
+
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+		for(Socket socket : connections) {
+			closeQuietly(socket);
+		}
+		executor.shutdown();
+		try {
+			if(!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+				executor.shutdownNow();
+			}
+		} catch(InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+		if(history != null) {
+			history.close();
+		}
+	}
+
+	/*
+	 * Number of socket connections currently being served.
+	 */
+	public int getOpenConnections() {
+		return connections.size();
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 13200;
+		HandHistoryWriter history = args.length > 1 ? new HandHistoryWriter(Paths.get(args[1])) : null;
+		TableServer server = new TableServer(port, System.nanoTime(), 6, 0.75, history);
+		System.out.println("listening on port " + server.getPort());
+		while(true) {
+			Thread.sleep(5000);
+			System.out.println(server.getMetrics());
+		}
+	}
+}
@@ -0,0 +1,154 @@
+package server;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Random;
+
+import blackjack.*;
+import deckOfCards.*;
+import history.HandHistoryWriter;
+import history.HandRecorder;
+
+/*
+ * One blackjack table: a BlackjackModel dealing from its own shoe, driven by text commands.
+ * A session is used by one connection at a time and is not thread safe.
+ *
+ * Commands and replies (one line each):
+ *   DEAL  -> PLAYER <total> <SOFT|HARD> UP <rank>   or a RESULT line if the player has a natural
+ *   HIT   -> PLAYER <total> <SOFT|HARD> UP <rank>   or a RESULT line if the player busts
+ *   STAND -> RESULT <GameResult> <player total> <dealer total>
+ *   QUIT  -> BYE
+ * Anything out of turn or unknown gets ERROR <message>.
+ * If a HandHistoryWriter is given, every finished round is appended to it.
+ */
+public class TableSession {
+
+	private enum Mode {BETTING, PLAYER_TURN}
+
+	private final BlackjackModel game = new BlackjackModel();
+	private final Random random;
+	private final ServerMetrics metrics;
+	private final HandRecorder recorder;
+	private final long tableId;
+	private int roundNumber;
+	private Mode mode = Mode.BETTING;
+	private boolean closed;
+
+	public TableSession(Random random, int numDecks, double penetration, ServerMetrics metrics) {
+		this(random, numDecks, penetration, metrics, null, 0);
+	}
+
+	public TableSession(Random random, int numDecks, double penetration, ServerMetrics metrics,
+			HandHistoryWriter history, long tableId) {
+		this.random = random;
+		this.metrics = metrics;
+		this.tableId = tableId;
+		Shoe shoe = new Shoe(numDecks, penetration);
+		shoe.shuffle(random);
+		game.setShoe(shoe);
+		if(history != null) {
+			recorder = new HandRecorder(shoe, history);
+			game.setCardSource(recorder);
+		} else {
+			recorder = null;
+		}
+		metrics.tableOpened();
+	}
+
+	/*
+	 * Handles one command line and returns the reply line.
+	 */
+	public String handle(String command) {
+		long start = System.nanoTime();
+		String reply = dispatch(command.trim());
+		metrics.actionHandled(System.nanoTime() - start);
+		return reply;
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+
+	/*
+	 * Releases the table, called once when its connection goes away.
+	 */
+	public void close() {
+		if(!closed) {
+			closed = true;
+			metrics.tableClosed();
+		}
+	}
+
+	private String dispatch(String command) {
+		switch(command) {
+		case "DEAL":
+			if(mode != Mode.BETTING) {
+				return "ERROR round in progress";
+			}
+			game.shuffleShoeIfNeeded(random);
+			if(recorder != null) {
+				recorder.startRound();
+			}
+			game.initialDealerCards();
+			game.initialPlayerCards();
+			mode = Mode.PLAYER_TURN;
+			if(game.getPlayerHandState().isNaturalBlackjack()) {
+				return finishRound();
+			}
+			return playerLine();
+		case "HIT":
+			if(mode != Mode.PLAYER_TURN) {
+				return "ERROR no round in progress";
+			}
+			if(recorder != null) {
+				recorder.recordHit();
+			}
+			game.playerTakeCard();
+			if(game.getPlayerHandState().isBust()) {
+				return finishRound();
+			}
+			return playerLine();
+		case "STAND":
+			if(mode != Mode.PLAYER_TURN) {
+				return "ERROR no round in progress";
+			}
+			if(recorder != null) {
+				recorder.recordStand();
+			}
+			return finishRound();
+		case "QUIT":
+			close();
+			return "BYE";
+		default:
+			return "ERROR unknown command";
+		}
+	}
+
+	private String playerLine() {
+		HandState player = game.getPlayerHandState();
+		return "PLAYER " + player.getBestTotal() + (player.isSoft() ? " SOFT" : " HARD")
+				+ " UP " + game.getDealerUpCard().getRank();
+	}
+
+	/*
+	 * Plays the dealer's turn the same way the GUI does and reports the result.
+	 */
+	private String finishRound() {
+		while(game.dealerShouldTakeCard()) {
+			game.dealerTakeCard();
+		}
+		mode = Mode.BETTING;
+		metrics.roundFinished();
+		GameResult result = game.gameAssessment();
+		if(recorder != null) {
+			try {
+				recorder.finishRound(tableId << 32 | roundNumber, result);
+			} catch(IOException e) {
+				throw new UncheckedIOException("could not write hand history", e);
+			}
+		}
+		roundNumber++;
+		return "RESULT " + result + " " + game.getPlayerHandState().getBestTotal()
+				+ " " + game.getDealerHandState().getBestTotal();
+	}
+}
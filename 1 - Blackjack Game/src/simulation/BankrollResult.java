@@ -0,0 +1,72 @@
+package simulation;
+
+/*
+ * Summary of many bankroll sessions. Only running statistics are kept, never per-hand results.
+ */
+public class BankrollResult {
+
+	private long sessions;
+	private long ruined;
+	private final RunningStats finalBankroll = new RunningStats();
+	private final RunningStats handNet = new RunningStats();
+	private final RunningStats sessionHands = new RunningStats();
+
+	void recordHand(double net) {
+		handNet.add(net);
+	}
+
+	void recordSession(double bankroll, long hands, boolean ruin) {
+		sessions++;
+		if(ruin) {
+			ruined++;
+		}
+		finalBankroll.add(bankroll);
+		sessionHands.add(hands);
+	}
+
+	void merge(BankrollResult other) {
+		sessions += other.sessions;
+		ruined += other.ruined;
+		finalBankroll.merge(other.finalBankroll);
+		handNet.merge(other.handNet);
+		sessionHands.merge(other.sessionHands);
+	}
+
+	public long getSessions() {
+		return sessions;
+	}
+
+	/*
+	 * Fraction of sessions that ended with the bankroll below the minimum bet.
+	 */
+	public double getRiskOfRuin() {
+		return sessions == 0 ? 0 : (double) ruined / sessions;
+	}
+
+	/*
+	 * Bankroll at the end of each session.
+	 */
+	public RunningStats getFinalBankroll() {
+		return finalBankroll;
+	}
+
+	/*
+	 * Money won or lost on each hand.
+	 */
+	public RunningStats getHandNet() {
+		return handNet;
+	}
+
+	/*
+	 * Number of hands played in each session.
+	 */
+	public RunningStats getSessionHands() {
+		return sessionHands;
+	}
+
+	@Override
+	public String toString() {
+		return "sessions=" + sessions + " riskOfRuin=" + getRiskOfRuin() + "\n  final bankroll: " + finalBankroll
+				+ "\n  hand net: " + handNet + "\n  hands/session: " + sessionHands;
+	}
+}
@@ -0,0 +1,134 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import blackjack.*;
+import deckOfCards.*;
+
+/*
+ * Simulates many independent player sessions: each starts with the same bankroll, bets with a
+ * BetPolicy, plays with a PlayerPolicy and stops after maxHands hands or when the bankroll drops
+ * below the minimum bet (ruin). Hands are played and paid by a RuleSet, RuleSet.STANDARD unless
+ * another is given.
+ *
+ * Sessions are split into chunks like MonteCarloSimulator. Each chunk's SplittableRandom comes from
+ * ChunkStreams when the chunk is played, so a seed deals the same sessions on
+ * any thread count. Every thread folds its chunks into its own BankrollResult and those are merged
+ * at the end: session counts, ruin, minimum and maximum come out identical, means and variances
+ * agree to rounding. Memory use does not grow with the number of hands or sessions.
+ */
+public class BankrollSimulator {
+
+	private static final int SESSIONS_PER_CHUNK = 64;
+
+	private final PlayerPolicy playerPolicy;
+	private final BetPolicy betPolicy;
+	private final int threads;
+	private final int numDecks;
+	private final double penetration;
+	private final RuleSet rules;
+
+	public BankrollSimulator(PlayerPolicy playerPolicy, BetPolicy betPolicy, int threads, int numDecks,
+			double penetration) {
+		this(playerPolicy, betPolicy, threads, numDecks, penetration, RuleSet.STANDARD);
+	}
+
+	/*
+	 * Plays by the given house rules, from a shoe of the rule set's number of decks.
+	 */
+	public BankrollSimulator(PlayerPolicy playerPolicy, BetPolicy betPolicy, int threads, RuleSet rules,
+			double penetration) {
+		this(playerPolicy, betPolicy, threads, rules.getNumDecks(), penetration, rules);
+	}
+
+	private BankrollSimulator(PlayerPolicy playerPolicy, BetPolicy betPolicy, int threads, int numDecks,
+			double penetration, RuleSet rules) {
+		if(threads < 1) {
+			throw new IllegalArgumentException("threads must be positive");
+		}
+		this.playerPolicy = playerPolicy;
+		this.betPolicy = betPolicy;
+		this.threads = threads;
+		this.numDecks = numDecks;
+		this.penetration = penetration;
+		this.rules = rules;
+	}
+
+	public BankrollResult run(long sessions, double startingBankroll, double minBet, long maxHands, long seed) {
+		long chunks = (sessions + SESSIONS_PER_CHUNK - 1) / SESSIONS_PER_CHUNK;
+		AtomicLong nextChunk = new AtomicLong();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			ArrayList<Future<BankrollResult>> workers = new ArrayList<>();
+			for(int t = 0; t < threads; t++) {
+				workers.add(pool.submit(() -> {
+					BlackjackModel game = new BlackjackModel();
+					game.setRuleSet(rules);
+					BankrollResult local = new BankrollResult();
+					long chunk;
+					while((chunk = nextChunk.getAndIncrement()) < chunks) {
+						SplittableRandom random = ChunkStreams.of(seed, chunk);
+						// a fresh shoe per chunk, as the shuffle starts from the order the shoe is in
+						Shoe shoe = new Shoe(numDecks, penetration);
+						game.setShoe(shoe);
+						long count = Math.min(SESSIONS_PER_CHUNK, sessions - chunk * SESSIONS_PER_CHUNK);
+						for(long s = 0; s < count; s++) {
+							playSession(game, shoe, random, local, startingBankroll, minBet, maxHands);
+						}
+					}
+					return local;
+				}));
+			}
+			BankrollResult total = new BankrollResult();
+			for(Future<BankrollResult> f : workers) {
+				total.merge(f.get());
+			}
+			return total;
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("simulation interrupted", e);
+		} catch(ExecutionException e) {
+			throw new RuntimeException("simulation failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private void playSession(BlackjackModel game, Shoe shoe, SplittableRandom random, BankrollResult result,
+			double bankroll, double minBet, long maxHands) {
+		shoe.shuffle(random);
+		CountTracker count = shoe.getCountTracker();
+		long hands = 0;
+		while(hands < maxHands && bankroll >= minBet) {
+			game.shuffleShoeIfNeeded(random);
+			double bet = Math.min(bankroll, Math.max(minBet, betPolicy.bet(bankroll, count)));
+			double net = bet * rules.payout(MonteCarloSimulator.playHand(game, playerPolicy));
+			bankroll += net;
+			result.recordHand(net);
+			hands++;
+		}
+		result.recordSession(bankroll, hands, bankroll < minBet);
+	}
+
+	public static void main(String[] args) {
+		long sessions = args.length > 0 ? Long.parseLong(args[0]) : 100_000;
+		long hands = args.length > 1 ? Long.parseLong(args[1]) : 1_000;
+		int threads = Runtime.getRuntime().availableProcessors();
+		PlayerPolicy strategy = new analysis.StrategyTableGenerator().generate(6);
+		BetPolicy[] policies = {BetPolicy.flat(10), BetPolicy.countSpread(10, 8),
+				BetPolicy.kelly(-0.005, 0.005, 1.3, 10)};
+		String[] names = {"flat", "count spread", "kelly"};
+		for(int i = 0; i < policies.length; i++) {
+			long start = System.nanoTime();
+			BankrollResult result = new BankrollSimulator(strategy, policies[i], threads, 6, 0.75)
+					.run(sessions, 1000, 10, hands, 132L);
+			System.out.printf("%s (%.2f s)%n%s%n", names[i], (System.nanoTime() - start) / 1e9, result);
+		}
+	}
+}
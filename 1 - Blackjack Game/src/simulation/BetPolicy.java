@@ -0,0 +1,47 @@
+package simulation;
+
+import deckOfCards.CountTracker;
+
+/*
+ * Decides how much to bet on the next hand from the current bankroll and the shoe's count.
+ * Implementations are shared between worker threads, so they should not keep mutable state.
+ */
+public interface BetPolicy {
+
+	/*
+	 * Returns the bet for the next hand. The simulator never lets a bet exceed the bankroll.
+	 */
+	double bet(double bankroll, CountTracker count);
+
+	/*
+	 * Always bets the same amount.
+	 */
+	static BetPolicy flat(double amount) {
+		return (bankroll, count) -> amount;
+	}
+
+	/*
+	 * Bets the Kelly fraction edge / variance of the bankroll, estimating the edge as
+	 * baseEdge + edgePerTrueCount * true count. Bets minBet when the edge is not positive.
+	 */
+	static BetPolicy kelly(double baseEdge, double edgePerTrueCount, double variance, double minBet) {
+		return (bankroll, count) -> {
+			double edge = baseEdge + edgePerTrueCount * count.getTrueCount();
+			if(edge <= 0) {
+				return minBet;
+			}
+			return Math.max(minBet, bankroll * edge / variance);
+		};
+	}
+
+	/*
+	 * Classic count spread: one unit at a true count of 1 or less, one more unit per true count
+	 * above that, up to maxUnits.
+	 */
+	static BetPolicy countSpread(double unit, int maxUnits) {
+		return (bankroll, count) -> {
+			int units = (int) Math.floor(count.getTrueCount());
+			return unit * Math.max(1, Math.min(maxUnits, units));
+		};
+	}
+}
@@ -0,0 +1,22 @@
+package simulation;
+
+import java.util.SplittableRandom;
+
+/*
+ * The one way the simulators turn a seed into independent random streams, one per chunk of work
+ * (a block of hands, sessions or rounds). The seed and the chunk index are mixed with SplitMix64's
+ * finalizer into a starting point of the chunk's own, so a chunk's stream can be made on demand,
+ * by any thread, without making any other chunk's stream first.
+ */
+final class ChunkStreams {
+
+	private ChunkStreams() {
+	}
+
+	static SplittableRandom of(long seed, long chunk) {
+		long z = seed + (chunk + 1) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return new SplittableRandom(z ^ (z >>> 31));
+	}
+}
@@ -0,0 +1,153 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import blackjack.*;
+import deckOfCards.*;
+
+/*
+ * Plays a large number of blackjack hands through BlackjackModel without a GUI and counts
+ * the results. The hands are split into fixed size chunks and every chunk gets its own
+ * SplittableRandom from ChunkStreams, made by whichever worker picks the chunk up.
+ * Because the chunks and their random streams never depend on the thread count, a given
+ * seed always produces the same totals no matter how many threads are used.
+ * Each chunk deals from its own Shoe, created once and reshuffled in place at the cut card.
+ * The default of one deck with no penetration reshuffles before every hand, like the GUI.
+ */
+public class MonteCarloSimulator {
+
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+	private final PlayerPolicy policy;
+	private final int threads;
+	private final int chunkSize;
+	private final int numDecks;
+	private final double penetration;
+	private final RuleSet rules;
+
+	public MonteCarloSimulator(PlayerPolicy policy, int threads) {
+		this(policy, threads, 1, 0);
+	}
+
+	public MonteCarloSimulator(PlayerPolicy policy, int threads, int numDecks, double penetration) {
+		this(policy, threads, numDecks, penetration, DEFAULT_CHUNK_SIZE);
+	}
+
+	/*
+	 * Plays by the given house rules, from a shoe of the rule set's number of decks.
+	 */
+	public MonteCarloSimulator(PlayerPolicy policy, int threads, RuleSet rules, double penetration) {
+		this(policy, threads, rules.getNumDecks(), penetration, DEFAULT_CHUNK_SIZE, rules);
+	}
+
+	public MonteCarloSimulator(PlayerPolicy policy, int threads, int numDecks, double penetration,
+			int chunkSize) {
+		this(policy, threads, numDecks, penetration, chunkSize, RuleSet.STANDARD);
+	}
+
+	private MonteCarloSimulator(PlayerPolicy policy, int threads, int numDecks, double penetration,
+			int chunkSize, RuleSet rules) {
+		if(threads < 1 || chunkSize < 1) {
+			throw new IllegalArgumentException("threads and chunkSize must be positive");
+		}
+		this.policy = policy;
+		this.threads = threads;
+		this.chunkSize = chunkSize;
+		this.numDecks = numDecks;
+		this.penetration = penetration;
+		this.rules = rules;
+	}
+
+	/*
+	 * Plays the requested number of hands and returns the combined result counts.
+	 */
+	public SimulationResult run(long hands, long seed) {
+		long chunks = (hands + chunkSize - 1) / chunkSize;
+		AtomicLong nextChunk = new AtomicLong();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			ArrayList<Future<SimulationResult>> workers = new ArrayList<>();
+			for(int t = 0; t < threads; t++) {
+				workers.add(pool.submit(() -> {
+					SimulationResult local = new SimulationResult(rules);
+					BlackjackModel game = new BlackjackModel();
+					game.setRuleSet(rules);
+					long chunk;
+					while((chunk = nextChunk.getAndIncrement()) < chunks) {
+						long remaining = hands - chunk * chunkSize;
+						int count = (int) Math.min(chunkSize, remaining);
+						SplittableRandom random = ChunkStreams.of(seed, chunk);
+						Shoe shoe = new Shoe(numDecks, penetration);
+						shoe.shuffle(random);
+						game.setShoe(shoe);
+						for(int i = 0; i < count; i++) {
+							game.shuffleShoeIfNeeded(random);
+							local.record(playHand(game, policy));
+						}
+					}
+					return local;
+				}));
+			}
+			SimulationResult total = new SimulationResult(rules);
+			for(Future<SimulationResult> f : workers) {
+				total.merge(f.get());
+			}
+			return total;
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("simulation interrupted", e);
+		} catch(ExecutionException e) {
+			throw new RuntimeException("simulation failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/*
+	 * Plays one complete hand from the game's current deck or shoe, in the same order as
+	 * the GUI: deal, player turn, dealer turn.
+	 */
+	public static GameResult playHand(BlackjackModel game, PlayerPolicy policy) {
+		game.initialDealerCards();
+		game.initialPlayerCards();
+
+		Rank upCard = game.getDealerUpCard().getRank();
+		HandState player = game.getPlayerHandState();
+		while(player.assess() == HandAssessment.NORMAL) {
+			long start = EngineMetrics.startTimer();
+			boolean hit = policy.shouldTakeCard(player.getBestTotal(), player.isSoft(), upCard);
+			EngineMetrics.policyDecided(start);
+			if(!hit) {
+				break;
+			}
+			game.playerTakeCard();
+		}
+
+		while(game.dealerShouldTakeCard()) {
+			game.dealerTakeCard();
+		}
+		return game.gameAssessment();
+	}
+
+	public static void main(String[] args) {
+		if(EngineMetrics.ENABLED) {
+			EngineMetrics.get().publishEvery(1000, System.out::println);
+		}
+		long hands = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 132L;
+		int decks = args.length > 2 ? Integer.parseInt(args[2]) : 6;
+		int threads = Runtime.getRuntime().availableProcessors();
+		MonteCarloSimulator sim = new MonteCarloSimulator(PlayerPolicy.MIMIC_DEALER, threads, decks, 0.75);
+		long start = System.nanoTime();
+		SimulationResult result = sim.run(hands, seed);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		System.out.println(result);
+		System.out.printf("%.2f s, %.0f hands/s%n", seconds, result.getHands() / seconds);
+	}
+}
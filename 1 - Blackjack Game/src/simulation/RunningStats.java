@@ -0,0 +1,81 @@
+package simulation;
+
+/*
+ * Streaming mean and variance (Welford's method). Values are folded in one at a time and
+ * never stored, and two accumulators can be merged, so memory stays constant however many
+ * values are seen.
+ */
+public class RunningStats {
+
+	private long count;
+	private double mean;
+	private double m2;
+	private double min = Double.POSITIVE_INFINITY;
+	private double max = Double.NEGATIVE_INFINITY;
+
+	public void add(double value) {
+		count++;
+		double delta = value - mean;
+		mean += delta / count;
+		m2 += delta * (value - mean);
+		min = Math.min(min, value);
+		max = Math.max(max, value);
+	}
+
+	/*
+	 * Folds another accumulator into this one (Chan et al. parallel update).
+	 */
+	public void merge(RunningStats other) {
+		if(other.count == 0) {
+			return;
+		}
+		if(count == 0) {
+			count = other.count;
+			mean = other.mean;
+			m2 = other.m2;
+			min = other.min;
+			max = other.max;
+			return;
+		}
+		long total = count + other.count;
+		double delta = other.mean - mean;
+		mean += delta * other.count / total;
+		m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+		count = total;
+		min = Math.min(min, other.min);
+		max = Math.max(max, other.max);
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public double getMean() {
+		return mean;
+	}
+
+	/*
+	 * Sample variance, 0 with fewer than two values.
+	 */
+	public double getVariance() {
+		return count < 2 ? 0 : m2 / (count - 1);
+	}
+
+	public double getStandardDeviation() {
+		return Math.sqrt(getVariance());
+	}
+
+	public double getMin() {
+		return min;
+	}
+
+	public double getMax() {
+		return max;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("n=%d mean=%.6f sd=%.6f min=%.2f max=%.2f", count, mean,
+				getStandardDeviation(), min, max);
+	}
+}
@@ -0,0 +1,153 @@
+package simulation;
+
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+import deckOfCards.Card;
+import deckOfCards.CardSource;
+import deckOfCards.Shoe;
+import deckOfCards.Shuffler;
+
+/*
+ * Card codes for a fixed number of rounds, generated once and then only read. Every round owns
+ * a window of ROUND_CARDS consecutive codes, cut in order from shuffled shoes (a shoe is
+ * reshuffled once the next window would pass 75% penetration), so each round starts from the
+ * same cards whichever strategy plays it. Readers deal from the shared array through a Cursor,
+ * which never copies it.
+ *
+ * A round that needs more than ROUND_CARDS cards goes on with the rest of its own shoe: the cards
+ * not dealt from that shoe up to the end of the round's window, shuffled by a ChunkStreams stream
+ * of the round's own (numbered after the block streams). So the extra cards still reflect every card removed before them, and are
+ * the same for every strategy that plays the round.
+ */
+public class SharedRoundCards {
+
+	public static final int ROUND_CARDS = 32;
+
+	private static final int ROUNDS_PER_BLOCK = 4096;
+
+	private final byte[] codes;
+	private final int rounds;
+	private final int numDecks;
+	private final long seed;
+	private final int windowsPerShoe;
+	private final int blocks;
+
+	/*
+	 * Generates the cards for the given number of rounds. Blocks of rounds are generated in
+	 * parallel, each from its own ChunkStreams stream, so the cards only depend on the seed.
+	 */
+	public SharedRoundCards(int rounds, int numDecks, long seed) {
+		this.rounds = rounds;
+		this.numDecks = numDecks;
+		this.seed = seed;
+		this.codes = new byte[Math.multiplyExact(rounds, ROUND_CARDS)];
+		this.blocks = (rounds + ROUNDS_PER_BLOCK - 1) / ROUNDS_PER_BLOCK;
+		windowsPerShoe = Math.max(1, (int) (0.75 * numDecks * Card.NUM_CARDS) / ROUND_CARDS);
+		IntStream.range(0, blocks).parallel().forEach(block -> {
+			Shoe shoe = new Shoe(numDecks, 1);
+			SplittableRandom random = ChunkStreams.of(seed, block);
+			int first = block * ROUNDS_PER_BLOCK;
+			int last = Math.min(rounds, first + ROUNDS_PER_BLOCK);
+			for(int r = first; r < last; r++) {
+				if((r - first) % windowsPerShoe == 0) {
+					shoe.shuffle(random);
+				}
+				int offset = r * ROUND_CARDS;
+				for(int i = 0; i < ROUND_CARDS; i++) {
+					codes[offset + i] = (byte) shoe.dealOneCode();
+				}
+			}
+		});
+	}
+
+	public int getRounds() {
+		return rounds;
+	}
+
+	/*
+	 * A CardSource dealing the cards of one round at a time from the shared array.
+	 */
+	public Cursor newCursor() {
+		return new Cursor();
+	}
+
+	/*
+	 * The cards left in a round's shoe after the round's window, in an order that depends only
+	 * on the seed and the round.
+	 */
+	private byte[] restOfShoe(int round) {
+		int shoeStart = shoeStart(round);
+		int[] left = new int[Card.NUM_CARDS];
+		for(int code = 0; code < Card.NUM_CARDS; code++) {
+			left[code] = numDecks;
+		}
+		for(int i = shoeStart * ROUND_CARDS; i < (round + 1) * ROUND_CARDS; i++) {
+			left[codes[i]]--;
+		}
+		byte[] rest = new byte[restOfShoeSize(round)];
+		int n = 0;
+		for(int code = 0; code < Card.NUM_CARDS; code++) {
+			for(int i = 0; i < left[code]; i++) {
+				rest[n++] = (byte) code;
+			}
+		}
+		Shuffler.shuffle(rest, 0, rest.length, ChunkStreams.of(seed, (long) blocks + round));
+		return rest;
+	}
+
+	private int restOfShoeSize(int round) {
+		return numDecks * Card.NUM_CARDS - (round + 1 - shoeStart(round)) * ROUND_CARDS;
+	}
+
+	// first round dealt from the same shuffle as the given round
+	private int shoeStart(int round) {
+		int first = round / ROUNDS_PER_BLOCK * ROUNDS_PER_BLOCK;
+		return first + (round - first) / windowsPerShoe * windowsPerShoe;
+	}
+
+	public class Cursor implements CardSource {
+		private int round;
+		private int next;
+		private int end;
+		private byte[] extra;
+		private int extraRound = -1;
+		private int extraNext;
+
+		/*
+		 * Moves to the start of the given round.
+		 */
+		public void startRound(int round) {
+			this.round = round;
+			next = round * ROUND_CARDS;
+			end = next + ROUND_CARDS;
+			extraNext = 0;
+		}
+
+		@Override
+		public Card dealOneCard() {
+			if(next < end) {
+				return Card.of(codes[next++]);
+			}
+			if(extraRound != round) {
+				extra = restOfShoe(round);
+				extraRound = round;
+			}
+			if(extraNext >= extra.length) {
+				throw new IndexOutOfBoundsException("shoe is empty");
+			}
+			return Card.of(extra[extraNext++]);
+		}
+
+		/*
+		 * Cards left in the round's shoe, counting the rest of the window.
+		 */
+		@Override
+		public int cardsRemaining() {
+			if(next < end || extraRound != round) {
+				return end - next + restOfShoeSize(round);
+			}
+			return extra.length - extraNext;
+		}
+	}
+}
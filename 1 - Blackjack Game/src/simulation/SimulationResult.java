@@ -0,0 +1,90 @@
+package simulation;
+
+import blackjack.GameResult;
+import blackjack.RuleSet;
+
+/*
+ * Running totals of GameResult counts for a simulation, played by the given RuleSet. Counts are 
+ * merged by addition, so the final totals do not depend on how hands were split between threads.
+ */
+public class SimulationResult {
+
+	private final long[] counts = new long[GameResult.values().length];
+	private final RuleSet rules;
+
+	public SimulationResult() {
+		this(RuleSet.STANDARD);
+	}
+
+	public SimulationResult(RuleSet rules) {
+		this.rules = rules;
+	}
+
+	/*
+	 * Records one finished hand.
+	 */
+	public void record(GameResult result) {
+		counts[result.ordinal()]++;
+	}
+
+	/*
+	 * Adds all of the counts from another result into this one.
+	 */
+	public void merge(SimulationResult other) {
+		for(int i = 0; i < counts.length; i++) {
+			counts[i] += other.counts[i];
+		}
+	}
+
+	public long getCount(GameResult result) {
+		return counts[result.ordinal()];
+	}
+
+	/*
+	 * The rules the hands were played by, which also set the payouts of getExpectedReturn().
+	 */
+	public RuleSet getRuleSet() {
+		return rules;
+	}
+
+	public long getHands() {
+		long total = 0;
+		for(long c : counts) {
+			total += c;
+		}
+		return total;
+	}
+
+	/*
+	 * Average return per unit bet, with the payouts of the rules the hands were played by.
+	 */
+	public double getExpectedReturn() {
+		return getExpectedReturn(rules);
+	}
+
+	/*
+	 * Average return per unit bet with the payouts of the given rules.
+	 */
+	public double getExpectedReturn(RuleSet rules) {
+		long hands = getHands();
+		if(hands == 0) {
+			return 0;
+		}
+		double net = 0;
+		for(GameResult r : GameResult.values()) {
+			net += rules.payout(r) * getCount(r);
+		}
+		return net / hands;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder();
+		sb.append("hands=").append(getHands());
+		for(GameResult r : GameResult.values()) {
+			sb.append(", ").append(r).append('=').append(getCount(r));
+		}
+		sb.append(", return=").append(getExpectedReturn());
+		return sb.toString();
+	}
+}
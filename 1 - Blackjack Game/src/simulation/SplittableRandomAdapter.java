@@ -0,0 +1,42 @@
+package simulation;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+
+/*
+ * Lets a SplittableRandom be passed to code that expects a java.util.Random, such as
+ * BlackjackModel.createAndShuffleDeck. Shoe and Deck shuffles take any RandomGenerator and
+ * do not need it. All random bits come from the wrapped generator,
+ * so the adapter is exactly as reproducible as the SplittableRandom behind it.
+ * Not thread safe, each worker should wrap its own generator.
+ */
+public class SplittableRandomAdapter extends Random {
+
+	private static final long serialVersionUID = 1L;
+
+	private final SplittableRandom source;
+
+	public SplittableRandomAdapter(SplittableRandom source) {
+		this.source = source;
+	}
+
+	@Override
+	protected int next(int bits) {
+		return (int) (source.nextLong() >>> (64 - bits));
+	}
+
+	@Override
+	public int nextInt(int bound) {
+		return source.nextInt(bound);
+	}
+
+	@Override
+	public long nextLong() {
+		return source.nextLong();
+	}
+
+	@Override
+	public double nextDouble() {
+		return source.nextDouble();
+	}
+}
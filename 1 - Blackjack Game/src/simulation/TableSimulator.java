@@ -0,0 +1,134 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import blackjack.GameResult;
+import blackjack.MultiSeatTable;
+import blackjack.PlayerPolicy;
+import blackjack.RuleSet;
+import deckOfCards.SharedShoe;
+
+/*
+ * Plays rounds at full MultiSeatTables and keeps a SimulationResult per seat, so seats with
+ * different policies can be compared while sharing the same shoe.
+ *
+ * Rounds are split into chunks like MonteCarloSimulator. Each chunk is played at a table and shoe
+ * of its own, with its SplittableRandom from ChunkStreams, and the seats of a table are played in
+ * order. Threads work on whole tables, so a seed gives the same results on any thread count.
+ */
+public class TableSimulator {
+
+	private static final int ROUNDS_PER_CHUNK = 1 << 14;
+
+	private final PlayerPolicy[] policies;
+	private final int threads;
+	private final int numDecks;
+	private final double penetration;
+	private final RuleSet rules;
+
+	public TableSimulator(int threads, int numDecks, double penetration, PlayerPolicy... policies) {
+		this(threads, numDecks, penetration, RuleSet.STANDARD, policies);
+	}
+
+	/*
+	 * Plays by the given house rules, from a shoe of the rule set's number of decks.
+	 */
+	public TableSimulator(int threads, RuleSet rules, double penetration, PlayerPolicy... policies) {
+		this(threads, rules.getNumDecks(), penetration, rules, policies);
+	}
+
+	private TableSimulator(int threads, int numDecks, double penetration, RuleSet rules,
+			PlayerPolicy... policies) {
+		if(threads < 1) {
+			throw new IllegalArgumentException("threads must be positive");
+		}
+		if(policies.length < 1 || policies.length > MultiSeatTable.MAX_SEATS) {
+			throw new IllegalArgumentException("a table has 1 to " + MultiSeatTable.MAX_SEATS + " seats");
+		}
+		this.policies = policies.clone();
+		this.threads = threads;
+		this.numDecks = numDecks;
+		this.penetration = penetration;
+		this.rules = rules;
+	}
+
+	/*
+	 * Plays the given number of rounds and returns the results per seat, indexed by seat.
+	 */
+	public SimulationResult[] run(long rounds, long seed) {
+		long chunks = (rounds + ROUNDS_PER_CHUNK - 1) / ROUNDS_PER_CHUNK;
+		AtomicLong nextChunk = new AtomicLong();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			ArrayList<Future<SimulationResult[]>> workers = new ArrayList<>();
+			for(int t = 0; t < threads; t++) {
+				workers.add(pool.submit(() -> {
+					SimulationResult[] local = newResults();
+					long chunk;
+					while((chunk = nextChunk.getAndIncrement()) < chunks) {
+						long count = Math.min(ROUNDS_PER_CHUNK, rounds - chunk * ROUNDS_PER_CHUNK);
+						SplittableRandom random = ChunkStreams.of(seed, chunk);
+						SharedShoe shoe = new SharedShoe(numDecks, penetration);
+						shoe.shuffle(random);
+						MultiSeatTable table = new MultiSeatTable(shoe, rules, policies);
+						for(long r = 0; r < count; r++) {
+							GameResult[] results = table.playRound(random);
+							for(int s = 0; s < results.length; s++) {
+								local[s].record(results[s]);
+							}
+						}
+					}
+					return local;
+				}));
+			}
+			SimulationResult[] total = newResults();
+			for(Future<SimulationResult[]> f : workers) {
+				SimulationResult[] local = f.get();
+				for(int s = 0; s < total.length; s++) {
+					total[s].merge(local[s]);
+				}
+			}
+			return total;
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("simulation interrupted", e);
+		} catch(ExecutionException e) {
+			throw new RuntimeException("simulation failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	private SimulationResult[] newResults() {
+		SimulationResult[] results = new SimulationResult[policies.length];
+		for(int s = 0; s < results.length; s++) {
+			results[s] = new SimulationResult(rules);
+		}
+		return results;
+	}
+
+	public static void main(String[] args) {
+		long rounds = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000L;
+		long seed = args.length > 1 ? Long.parseLong(args[1]) : 132L;
+		int seats = args.length > 2 ? Integer.parseInt(args[2]) : MultiSeatTable.MAX_SEATS;
+		PlayerPolicy[] policies = new PlayerPolicy[seats];
+		Arrays.fill(policies, PlayerPolicy.MIMIC_DEALER);
+		policies[0] = PlayerPolicy.NEVER_BUST;
+		int threads = Runtime.getRuntime().availableProcessors();
+		TableSimulator sim = new TableSimulator(threads, 6, 0.75, policies);
+		long start = System.nanoTime();
+		SimulationResult[] results = sim.run(rounds, seed);
+		double seconds = (System.nanoTime() - start) / 1e9;
+		for(int s = 0; s < results.length; s++) {
+			System.out.println("seat " + s + ": " + results[s]);
+		}
+		System.out.printf("%.2f s, %.0f rounds/s%n", seconds, rounds / seconds);
+	}
+}
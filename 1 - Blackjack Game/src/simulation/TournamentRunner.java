@@ -0,0 +1,168 @@
+package simulation;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import blackjack.*;
+
+/*
+ * Plays several player strategies on exactly the same rounds (common random numbers).
+ * All strategies deal from one SharedRoundCards buffer, so the difference between two strategies
+ * is measured round by round and its variance is far smaller than that of two independent runs.
+ *
+ * Rounds are split into blocks; a worker plays every strategy on each round of its block and the
+ * block results are merged in block order, so the figures depend only on the cards.
+ * All strategies play and are paid by the same RuleSet, RuleSet.STANDARD unless another is given.
+ */
+public class TournamentRunner {
+
+	private static final int ROUNDS_PER_BLOCK = 8192;
+
+	private final List<PlayerPolicy> strategies;
+	private final int threads;
+	private final RuleSet rules;
+
+	public TournamentRunner(List<PlayerPolicy> strategies, int threads) {
+		this(strategies, threads, RuleSet.STANDARD);
+	}
+
+	public TournamentRunner(List<PlayerPolicy> strategies, int threads, RuleSet rules) {
+		if(strategies.isEmpty() || threads < 1) {
+			throw new IllegalArgumentException("need at least one strategy and one thread");
+		}
+		this.strategies = new ArrayList<>(strategies);
+		this.threads = threads;
+		this.rules = rules;
+	}
+
+	public TournamentResult run(SharedRoundCards cards) {
+		int rounds = cards.getRounds();
+		int blocks = (rounds + ROUNDS_PER_BLOCK - 1) / ROUNDS_PER_BLOCK;
+		TournamentResult[] results = new TournamentResult[blocks];
+		AtomicInteger nextBlock = new AtomicInteger();
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		try {
+			ArrayList<Future<?>> workers = new ArrayList<>();
+			for(int t = 0; t < threads; t++) {
+				workers.add(pool.submit(() -> {
+					int n = strategies.size();
+					BlackjackModel game = new BlackjackModel();
+					game.setRuleSet(rules);
+					SharedRoundCards.Cursor cursor = cards.newCursor();
+					game.setCardSource(cursor);
+					double[] net = new double[n];
+					int block;
+					while((block = nextBlock.getAndIncrement()) < blocks) {
+						TournamentResult local = new TournamentResult(n, rules);
+						int last = Math.min(rounds, (block + 1) * ROUNDS_PER_BLOCK);
+						for(int r = block * ROUNDS_PER_BLOCK; r < last; r++) {
+							for(int s = 0; s < n; s++) {
+								cursor.startRound(r);
+								GameResult result = MonteCarloSimulator.playHand(game, strategies.get(s));
+								local.results[s].record(result);
+								net[s] = rules.payout(result);
+							}
+							local.recordRound(net);
+						}
+						results[block] = local;
+					}
+				}));
+			}
+			for(Future<?> f : workers) {
+				f.get();
+			}
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("tournament interrupted", e);
+		} catch(ExecutionException e) {
+			throw new RuntimeException("tournament failed", e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+
+		TournamentResult total = new TournamentResult(strategies.size(), rules);
+		for(TournamentResult r : results) {
+			total.merge(r);
+		}
+		return total;
+	}
+
+	/*
+	 * Per-strategy result counts and net returns, plus each strategy's round-by-round difference
+	 * from the first strategy (the baseline).
+	 */
+	public static class TournamentResult {
+		final SimulationResult[] results;
+		final RunningStats[] net;
+		final RunningStats[] differenceFromBaseline;
+
+		TournamentResult(int strategies, RuleSet rules) {
+			results = new SimulationResult[strategies];
+			net = new RunningStats[strategies];
+			differenceFromBaseline = new RunningStats[strategies];
+			for(int i = 0; i < strategies; i++) {
+				results[i] = new SimulationResult(rules);
+				net[i] = new RunningStats();
+				differenceFromBaseline[i] = new RunningStats();
+			}
+		}
+
+		void recordRound(double[] roundNet) {
+			for(int i = 0; i < roundNet.length; i++) {
+				net[i].add(roundNet[i]);
+				differenceFromBaseline[i].add(roundNet[i] - roundNet[0]);
+			}
+		}
+
+		void merge(TournamentResult other) {
+			for(int i = 0; i < results.length; i++) {
+				results[i].merge(other.results[i]);
+				net[i].merge(other.net[i]);
+				differenceFromBaseline[i].merge(other.differenceFromBaseline[i]);
+			}
+		}
+
+		public SimulationResult getResult(int strategy) {
+			return results[strategy];
+		}
+
+		public RunningStats getNet(int strategy) {
+			return net[strategy];
+		}
+
+		public RunningStats getDifferenceFromBaseline(int strategy) {
+			return differenceFromBaseline[strategy];
+		}
+
+		@Override
+		public String toString() {
+			StringBuilder sb = new StringBuilder();
+			for(int i = 0; i < results.length; i++) {
+				RunningStats diff = differenceFromBaseline[i];
+				sb.append(String.format("strategy %d: return %.5f, vs baseline %+.5f +/- %.5f%n", i,
+						net[i].getMean(), diff.getMean(),
+						diff.getStandardDeviation() / Math.sqrt(Math.max(1, diff.getCount()))));
+			}
+			return sb.toString();
+		}
+	}
+
+	public static void main(String[] args) {
+		int rounds = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		long start = System.nanoTime();
+		SharedRoundCards cards = new SharedRoundCards(rounds, 6, 132L);
+		System.out.printf("cards generated in %.2f s%n", (System.nanoTime() - start) / 1e9);
+		List<PlayerPolicy> strategies = List.of(PlayerPolicy.MIMIC_DEALER, PlayerPolicy.NEVER_BUST,
+				new analysis.StrategyTableGenerator().generate(6));
+		start = System.nanoTime();
+		TournamentResult result = new TournamentRunner(strategies, Runtime.getRuntime().availableProcessors())
+				.run(cards);
+		System.out.print(result);
+		System.out.printf("%.2f s%n", (System.nanoTime() - start) / 1e9);
+	}
+}
@@ -1,10 +1,25 @@
 package tests;
 
 import deckOfCards.*;
+import analysis.*;
 import blackjack.*;
+import history.*;
+import server.*;
+import simulation.*;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 import org.junit.Test;
@@ -71,4 +86,474 @@ public class PublicTests {
 		assertTrue(dealerCards.get(1).equals(new Card(Rank.NINE, Suit.SPADES)));
 		assertTrue(dealerCards.get(2).equals(new Card(Rank.FIVE, Suit.CLUBS)));		
 	}
+
+	@Test
+	public void testShoeDealAndReshuffle() {
+		Shoe shoe = new Shoe(6, 0.75);
+		assertEquals(312, shoe.size());
+		shoe.shuffle(new Random(1234));
+		for (int i = 0; i < 233; i++) {
+			shoe.dealOneCard();
+		}
+		assertFalse(shoe.needsShuffle());
+		shoe.dealOneCard();
+		assertTrue(shoe.needsShuffle());
+		shoe.shuffle(new Random(1234));
+		assertEquals(312, shoe.cardsRemaining());
+	}
+
+	@Test
+	public void testCardCodesAndHashCode() {
+		for (int code = 0; code < 52; code++) {
+			Card card = Card.of(code);
+			assertEquals(code, card.getCode());
+			assertSame(card, Card.of(card.getRank(), card.getSuit()));
+			assertEquals(card.getRank().getValue(), Card.valueOf(code));
+		}
+		assertEquals(new Card(Rank.ACE, Suit.HEARTS), Card.of(Rank.ACE, Suit.HEARTS));
+		assertEquals(new Card(Rank.ACE, Suit.HEARTS).hashCode(), Card.of(Rank.ACE, Suit.HEARTS).hashCode());
+	}
+
+	@Test
+	public void testShoeCountTracker() {
+		Shoe shoe = new Shoe(2, 0.75);
+		shoe.shuffle(new Random(99));
+		CountTracker tracker = shoe.getCountTracker();
+		int runningCount = 0;
+		int aces = 8;
+		for (int i = 0; i < 60; i++) {
+			Card card = shoe.dealOneCard();
+			int value = card.getRank().getValue();
+			if (value >= 2 && value <= 6) {
+				runningCount++;
+			} else if (value == 1 || value == 10) {
+				runningCount--;
+			}
+			if (value == 1) {
+				aces--;
+			}
+		}
+		assertEquals(runningCount, tracker.getRunningCount());
+		assertEquals(aces, tracker.getRemaining(Rank.ACE));
+		assertEquals(44, tracker.getCardsRemaining());
+		assertEquals(runningCount * 52.0 / 44, tracker.getTrueCount(), 1e-9);
+		shoe.shuffle(new Random(99));
+		assertEquals(0, tracker.getRunningCount());
+	}
+
+	@Test
+	public void testContinuousShoeKeepsEveryCard() {
+		Shoe shoe = new Shoe(1, true);
+		SplittableRandom random = new SplittableRandom(7);
+		shoe.shuffle(random);
+		for (int round = 0; round < 100; round++) {
+			assertFalse(shoe.prepareRound(random));
+			for (int i = 0; i < 5; i++) {
+				shoe.dealOneCard();
+			}
+		}
+		shoe.prepareRound(random);
+		boolean[] seen = new boolean[52];
+		for (int i = 0; i < 52; i++) {
+			int code = shoe.dealOneCode();
+			assertFalse(seen[code]);
+			seen[code] = true;
+		}
+	}
+
+	@Test
+	public void testSnapshotPublishedOnChange() {
+		BlackjackModel game = new BlackjackModel();
+		game.setPublishSnapshots(true);
+		game.createAndShuffleDeck(new Random(3723));
+		game.initialPlayerCards();
+		game.initialDealerCards();
+		ModelSnapshot before = game.getSnapshot();
+		assertSame(before, game.getSnapshot());
+		assertEquals(2, before.getPlayerHand().size());
+		game.playerTakeCard();
+		ModelSnapshot after = game.getSnapshot();
+		assertTrue(after.getVersion() > before.getVersion());
+		assertEquals(2, before.getPlayerHand().size());
+		assertEquals(3, after.getPlayerHand().size());
+		assertEquals(new Card(Rank.EIGHT, Suit.HEARTS), after.getPlayerHand().getCard(2));
+		assertEquals(game.gameAssessment(), after.getResult());
+	}
+
+	@Test
+	public void testSnapshotNeverMixesRounds() {
+		BlackjackModel game = new BlackjackModel();
+		game.setPublishSnapshots(true);
+		game.createAndShuffleDeck(new Random(3723));
+		game.initialDealerCards();
+		game.initialPlayerCards();
+		ModelSnapshot firstRound = game.getSnapshot();
+		game.initialDealerCards();
+		ModelSnapshot dealing = game.getSnapshot();
+		assertEquals(firstRound.getVersion() + 1, dealing.getVersion());
+		assertEquals(2, dealing.getDealerHand().size());
+		assertNull(dealing.getPlayerHand());
+		assertNull(dealing.getResult());
+		game.initialPlayerCards();
+		assertEquals(2, game.getSnapshot().getPlayerHand().size());
+		assertEquals(game.gameAssessment(), game.getSnapshot().getResult());
+		assertEquals(2, firstRound.getPlayerHand().size());
+	}
+
+	@Test
+	public void testFullTableDealsEveryCardOnce() {
+		SharedShoe shoe = new SharedShoe(1, 1);
+		PlayerPolicy[] policies = new PlayerPolicy[MultiSeatTable.MAX_SEATS];
+		java.util.Arrays.fill(policies, PlayerPolicy.MIMIC_DEALER);
+		MultiSeatTable table = new MultiSeatTable(shoe, policies);
+		SplittableRandom random = new SplittableRandom(11);
+		for (int round = 0; round < 1000; round++) {
+			shoe.shuffle(random);
+			table.playRound(random);
+			boolean[] seen = new boolean[52];
+			int dealt = table.getDealerCards().size();
+			for (Card c : table.getDealerCards()) {
+				seen[c.getCode()] = true;
+			}
+			for (int s = 0; s < table.getNumSeats(); s++) {
+				for (Card c : table.getSeatCards(s)) {
+					assertFalse(seen[c.getCode()]);
+					seen[c.getCode()] = true;
+					dealt++;
+				}
+				assertNotNull(table.getResult(s));
+			}
+			assertEquals(shoe.cardsDealt(), dealt);
+		}
+	}
+
+	@Test
+	public void testRuleSetVariants() {
+		RuleSet h17 = RuleSet.STANDARD;
+		RuleSet s17 = h17.withDealerHitsSoft17(false).withBlackjackPayout(1.2);
+		assertTrue(h17.dealerShouldTakeCard(17, true));
+		assertFalse(s17.dealerShouldTakeCard(17, true));
+		assertFalse(s17.dealerShouldTakeCard(17, false));
+		assertTrue(s17.dealerShouldTakeCard(16, false));
+		assertEquals(1.5, h17.payout(GameResult.NATURAL_BLACKJACK), 0);
+		assertEquals(1.2, s17.payout(GameResult.NATURAL_BLACKJACK), 0);
+		RuleSet doubles = h17.withDoubleRule(RuleSet.DoubleRule.TEN_OR_ELEVEN);
+		assertTrue(doubles.mayDouble(11, false));
+		assertFalse(doubles.mayDouble(9, false));
+		assertFalse(h17.mayDouble(11, false));
+
+		BlackjackModel game = new BlackjackModel();
+		game.setRuleSet(s17);
+		ArrayList<Card> dealer = new ArrayList<Card>();
+		dealer.add(new Card(Rank.ACE, Suit.SPADES));
+		dealer.add(new Card(Rank.SIX, Suit.HEARTS));
+		game.setDealerCards(dealer);
+		assertFalse(game.dealerShouldTakeCard());
+		game.setRuleSet(h17);
+		assertTrue(game.dealerShouldTakeCard());
+	}
+
+	@Test
+	public void testInProcessClientProtocol() throws IOException {
+		try(TableServer server = new TableServer(0, 42, 6, 0.75)) {
+			InProcessClient client = server.openLocalTable();
+			assertEquals("ERROR no round in progress", client.send("HIT"));
+			assertEquals("ERROR unknown command", client.send("SPLIT"));
+			for(int i = 0; i < 100; i++) {
+				String[] result = client.playRound(PlayerPolicy.MIMIC_DEALER).split(" ");
+				assertEquals("RESULT", result[0]);
+				GameResult.valueOf(result[1]);
+			}
+			assertTrue(client.send("DEAL").matches("PLAYER \\d+ (SOFT|HARD) UP [A-Z]+|RESULT .*"));
+			assertEquals(1, server.getMetrics().getActiveTables());
+			assertEquals("BYE", client.send("QUIT"));
+			assertEquals(0, server.getMetrics().getActiveTables());
+			assertEquals(1, server.getMetrics().getTablesOpened());
+			assertTrue(server.getMetrics().getTablesPerSecond() > 0);
+		}
+	}
+
+	@Test
+	public void testServerCloseDropsOpenConnections() throws IOException {
+		TableServer server = new TableServer(0, 42, 6, 0.75);
+		try(Socket socket = new Socket(InetAddress.getLoopbackAddress(), server.getPort())) {
+			socket.setSoTimeout(10000);
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+			PrintWriter out = new PrintWriter(socket.getOutputStream(), true);
+			out.println("DEAL");
+			assertNotNull(in.readLine());
+			assertEquals(1, server.getOpenConnections());
+			server.close();
+			assertEquals(0, server.getOpenConnections());
+			assertEquals(0, server.getMetrics().getActiveTables());
+			String line;
+			try {
+				line = in.readLine();
+			} catch(IOException e) {
+				line = null;
+			}
+			assertNull(line);
+		}
+	}
+
+	@Test
+	public void testLatencyHistogramBuckets() throws InterruptedException {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getPercentile(0.5));
+		long huge = 1L << 40;
+		for(long value = 0; value < 100000; value = value < 16 ? value + 1 : value * 5 / 4) {
+			histogram.reset();
+			histogram.record(value);
+			histogram.record(huge);
+			long bound = histogram.getPercentile(0.5);
+			assertTrue(value + " -> " + bound, bound >= value && bound <= value + value / 8);
+			if(value < 8) {
+				assertEquals(value, bound);
+			}
+		}
+
+		histogram.reset();
+		Thread[] threads = new Thread[4];
+		for(int t = 0; t < threads.length; t++) {
+			threads[t] = new Thread(() -> {
+				for(int value = 1; value <= 1000; value++) {
+					histogram.record(value);
+				}
+			});
+			threads[t].start();
+		}
+		for(Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(4000, histogram.getCount());
+		assertEquals(1000, histogram.getPercentile(1.0));
+		long median = histogram.getPercentile(0.5);
+		assertTrue(median >= 500 && median <= 500 + 500 / 8);
+	}
+
+	@Test
+	public void testRunningStatsMergeMatchesSequential() {
+		SplittableRandom random = new SplittableRandom(77);
+		RunningStats sequential = new RunningStats();
+		RunningStats[] parts = new RunningStats[5];
+		for(int p = 0; p < parts.length; p++) {
+			parts[p] = new RunningStats();
+			int size = p == 2 ? 0 : 1 + random.nextInt(2000);
+			for(int i = 0; i < size; i++) {
+				double value = 1000 + random.nextGaussian() * 25;
+				sequential.add(value);
+				parts[p].add(value);
+			}
+		}
+		RunningStats merged = new RunningStats();
+		for(RunningStats part : parts) {
+			merged.merge(part);
+		}
+		assertEquals(sequential.getCount(), merged.getCount());
+		assertEquals(sequential.getMean(), merged.getMean(), 1e-9);
+		assertEquals(sequential.getVariance(), merged.getVariance(), 1e-9 * sequential.getVariance());
+		assertEquals(sequential.getMin(), merged.getMin(), 0);
+		assertEquals(sequential.getMax(), merged.getMax(), 0);
+	}
+
+	@Test
+	public void testBankrollSameSessionsOnAnyThreadCount() {
+		BankrollResult one = new BankrollSimulator(PlayerPolicy.MIMIC_DEALER, BetPolicy.flat(10), 1, 6, 0.75)
+				.run(300, 500, 10, 200, 132L);
+		BankrollResult three = new BankrollSimulator(PlayerPolicy.MIMIC_DEALER, BetPolicy.flat(10), 3, 6, 0.75)
+				.run(300, 500, 10, 200, 132L);
+		assertEquals(300, three.getSessions());
+		assertEquals(one.getRiskOfRuin(), three.getRiskOfRuin(), 0);
+		assertEquals(one.getSessionHands().getCount(), three.getSessionHands().getCount());
+		assertEquals(one.getHandNet().getCount(), three.getHandNet().getCount());
+		assertEquals(one.getFinalBankroll().getMax(), three.getFinalBankroll().getMax(), 0);
+		assertEquals(one.getFinalBankroll().getMean(), three.getFinalBankroll().getMean(), 1e-9);
+	}
+
+	@Test
+	public void testPairedStrategiesSeeSameCards() {
+		SharedRoundCards cards = new SharedRoundCards(20, 1, 7);
+		SharedRoundCards.Cursor first = cards.newCursor();
+		SharedRoundCards.Cursor second = cards.newCursor();
+		for(int round = 0; round < cards.getRounds(); round++) {
+			first.startRound(round);
+			second.startRound(round);
+			boolean[] seen = new boolean[Card.NUM_CARDS];
+			for(int i = 0; i < Card.NUM_CARDS; i++) {
+				assertEquals(Card.NUM_CARDS - i, first.cardsRemaining());
+				Card card = first.dealOneCard();
+				assertEquals(card, second.dealOneCard());
+				int code = Card.encode(card.getRank(), card.getSuit());
+				assertFalse(seen[code]);
+				seen[code] = true;
+			}
+		}
+
+		List<PlayerPolicy> twins = List.of(PlayerPolicy.MIMIC_DEALER, PlayerPolicy.MIMIC_DEALER);
+		TournamentRunner.TournamentResult result = new TournamentRunner(twins, 2)
+				.run(new SharedRoundCards(20000, 6, 132L));
+		assertEquals(20000, result.getNet(1).getCount());
+		assertEquals(0, result.getDifferenceFromBaseline(1).getMin(), 0);
+		assertEquals(0, result.getDifferenceFromBaseline(1).getMax(), 0);
+	}
+
+	@Test
+	public void testColumnarStoreRoundTrip() throws IOException {
+		Path directory = Files.createTempDirectory("columnar");
+		int rows = 150000;
+		SplittableRandom random = new SplittableRandom(5);
+		byte[][] cards = new byte[rows][4];
+		int[] bets = new int[rows];
+		GameResult[] results = new GameResult[rows];
+		try(ColumnarResultWriter writer = new ColumnarResultWriter(directory)) {
+			for(int row = 0; row < rows; row++) {
+				for(int i = 0; i < 4; i++) {
+					cards[row][i] = (byte) random.nextInt(Card.NUM_CARDS);
+				}
+				bets[row] = random.nextInt(1000);
+				results[row] = GameResult.values()[random.nextInt(GameResult.values().length)];
+				writer.append(cards[row], row % 5, 4 + row % 18, 17 + row % 9, results[row], bets[row]);
+				if(row == 1000) {
+					writer.flush(); // later batches no longer line up with the mappings
+				}
+			}
+		}
+		try(ColumnarResultReader reader = new ColumnarResultReader(directory)) {
+			assertEquals(rows, reader.getRows());
+			long[] counts = new long[GameResult.values().length];
+			long totalBet = 0;
+			for(int row = 0; row < rows; row++) {
+				for(int i = 0; i < 4; i++) {
+					assertEquals(cards[row][i], reader.getInitialCard(row, i));
+				}
+				assertEquals(row % 5, reader.getHits(row));
+				assertEquals(4 + row % 18, reader.getPlayerTotal(row));
+				assertEquals(17 + row % 9, reader.getDealerTotal(row));
+				assertEquals(results[row], reader.getResult(row));
+				assertEquals(bets[row], reader.getBet(row));
+				counts[results[row].ordinal()]++;
+				totalBet += bets[row];
+			}
+			assertArrayEquals(counts, reader.countResults());
+			assertEquals(totalBet, reader.totalBet());
+		}
+		assertFalse(Files.exists(directory.resolve("store.meta.tmp")));
+		try(Stream<Path> files = Files.list(directory)) {
+			for(Path file : files.toArray(Path[]::new)) {
+				Files.delete(file);
+			}
+		}
+		Files.delete(directory);
+	}
+
+	@Test
+	public void testDealerOutcomesSumToOne() {
+		DealerOutcomeCalculator calculator = new DealerOutcomeCalculator(1 << 16);
+		for(int up = 1; up <= 10; up++) {
+			int[] shoe = DealerOutcomeCalculator.fullShoe(6);
+			shoe[up - 1]--;
+			double[] outcomes = calculator.dealerOutcomes(up, shoe);
+			assertEquals(DealerOutcomeCalculator.NUM_OUTCOMES, outcomes.length);
+			double sum = 0;
+			for(double p : outcomes) {
+				assertTrue(p >= 0);
+				sum += p;
+			}
+			assertEquals(1, sum, 1e-12);
+			if(up != 1 && up != 10) {
+				assertEquals(0, outcomes[DealerOutcomeCalculator.NATURAL], 0);
+			}
+		}
+		int[] shoe = DealerOutcomeCalculator.fullShoe(6);
+		shoe[0]--;
+		// the hole card is one of the 96 tens among the 311 cards left
+		assertEquals(96.0 / 311, calculator.dealerOutcomes(1, shoe)[DealerOutcomeCalculator.NATURAL], 1e-12);
+	}
+
+	@Test
+	public void testStrategyTableKnownCells() {
+		StrategyTable table = new StrategyTableGenerator().generate(6);
+		// textbook hit/stand basic strategy, six decks, dealer hits soft 17
+		assertTrue(table.shouldHit(16, false, 10));
+		assertFalse(table.shouldHit(16, false, 6));
+		assertTrue(table.shouldHit(12, false, 2));
+		assertFalse(table.shouldHit(12, false, 4));
+		assertFalse(table.shouldHit(13, false, 2));
+		assertFalse(table.shouldHit(17, false, 1));
+		assertTrue(table.shouldHit(18, true, 9));
+		assertFalse(table.shouldHit(18, true, 8));
+		assertTrue(table.shouldTakeCard(16, false, Rank.KING));
+		assertFalse(table.shouldTakeCard(12, false, Rank.FIVE));
+	}
+
+	@Test
+	public void testHouseEdgeKnownValues() {
+		HouseEdgeCalculator calculator = new HouseEdgeCalculator();
+		// mimicking the dealer costs about 5.6%, since the player busts first
+		double mimic = calculator.expectedReturn(6, PlayerPolicy.MIMIC_DEALER);
+		assertEquals(-0.056, mimic, 0.002);
+		// best hit/stand play without doubling or splitting leaves about 2.25%
+		double optimal = calculator.expectedReturn(6, null);
+		assertEquals(-0.0225, optimal, 0.002);
+	}
+
+	@Test
+	public void testHandHistoryRoundTrip() throws IOException {
+		Path file = Files.createTempFile("history", ".bjh");
+		List<String> played = new ArrayList<>();
+		try(TableServer server = new TableServer(0, 9, 6, 0.75, new HandHistoryWriter(file))) {
+			InProcessClient client = server.openLocalTable();
+			for(int i = 0; i < 500; i++) {
+				played.add(client.playRound(PlayerPolicy.MIMIC_DEALER).split(" ")[1]);
+			}
+		}
+		try(HandHistoryReader reader = new HandHistoryReader(file)) {
+			for(int i = 0; i < played.size(); i++) {
+				assertTrue(reader.next());
+				assertEquals(i, reader.getRoundId());
+				assertEquals(played.get(i), reader.getResult().name());
+				assertTrue(reader.getNumCards() >= 4);
+			}
+			assertFalse(reader.next());
+		}
+		HandReplayer replayer = new HandReplayer();
+		assertEquals(0, replayer.replay(file));
+		assertEquals(played.size(), replayer.getRounds());
+		Files.delete(file);
+	}
+
+	@Test
+	public void testSimulationSameResultOnAnyThreadCount() {
+		SimulationResult one = new MonteCarloSimulator(PlayerPolicy.MIMIC_DEALER, 1, 6, 0.75, 4096)
+				.run(50000, 132L);
+		SimulationResult four = new MonteCarloSimulator(PlayerPolicy.MIMIC_DEALER, 4, 6, 0.75, 4096)
+				.run(50000, 132L);
+		assertEquals(50000, four.getHands());
+		for(GameResult result : GameResult.values()) {
+			assertEquals(one.getCount(result), four.getCount(result));
+		}
+		assertEquals(one.getExpectedReturn(), four.getExpectedReturn(), 0);
+	}
+
+	@Test
+	public void testTableSameResultOnAnyThreadCount() {
+		PlayerPolicy[] policies = {PlayerPolicy.NEVER_BUST, PlayerPolicy.MIMIC_DEALER, PlayerPolicy.MIMIC_DEALER};
+		SimulationResult[] one = new TableSimulator(1, 6, 0.75, policies).run(40000, 132L);
+		SimulationResult[] four = new TableSimulator(4, 6, 0.75, policies).run(40000, 132L);
+		for(int s = 0; s < policies.length; s++) {
+			assertEquals(40000, four[s].getHands());
+			for(GameResult result : GameResult.values()) {
+				assertEquals(one[s].getCount(result), four[s].getCount(result));
+			}
+		}
+	}
+
+	@Test
+	public void testSixToFiveRaisesHouseEdge() {
+		double threeToTwo = new HouseEdgeCalculator().expectedReturn(6, null);
+		RuleSet sixToFivePayout = RuleSet.STANDARD.withBlackjackPayout(1.2);
+		double sixToFive = new HouseEdgeCalculator(sixToFivePayout).expectedReturn(6, null);
+		// a natural comes about once in 21 hands and now pays 0.3 less
+		assertEquals(threeToTwo - 0.3 * 0.045, sixToFive, 0.002);
+	}
 }
@@ -0,0 +1,235 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/*
+ * Finds the minimum snippet of a query in every document of a corpus and keeps the k documents
+ * with the shortest snippets. Documents are read from an iterator one at a time and handed to a
+ * pool of worker threads, with only a few documents in flight per thread, so the corpus is never
+ * held in memory. A document that is also AutoCloseable, such as a FileDocument, is closed as
+ * soon as it has been searched, even when the search stopped before its last token. The best k
+ * are kept in a bounded heap whose head is the worst hit kept, so every other document is either
+ * dropped or replaces it in O(log k).
+ */
+public class CorpusSearch implements AutoCloseable {
+
+	private final ExecutorService pool;
+	private final int maxInFlight;
+
+	public CorpusSearch(int threads) {
+		if(threads < 1) {
+			throw new IllegalArgumentException("threads must be positive");
+		}
+		pool = Executors.newFixedThreadPool(threads, r -> {
+			Thread t = new Thread(r, "corpus-search");
+			t.setDaemon(true);
+			return t;
+		});
+		maxInFlight = threads * 2;
+	}
+
+	/*
+	 * Searches every document for the terms and returns the k documents with the shortest
+	 * snippets, shortest first. Documents are numbered in the order the iterator returns them;
+	 * of two equally short snippets the earlier document ranks first.
+	 */
+	public Result search(Iterator<? extends Iterable<String>> documents, List<String> terms, int k) {
+		if(k < 1) {
+			throw new IllegalArgumentException("k must be positive");
+		}
+		long start = System.nanoTime();
+		PriorityQueue<Hit> top = new PriorityQueue<>(k, Collections.reverseOrder(Hit.RANKING));
+		Semaphore inFlight = new Semaphore(maxInFlight);
+		AtomicReference<RuntimeException> failure = new AtomicReference<>();
+		int searched = 0;
+		try {
+			while(documents.hasNext() && failure.get() == null) {
+				Iterable<String> document = documents.next();
+				int id = searched++;
+				inFlight.acquire();
+				pool.execute(() -> {
+					try {
+						MinimumSnippet snippet = new MinimumSnippet(document, terms);
+						if(snippet.foundAllTerms()) {
+							offer(top, k, new Hit(id, snippet));
+						}
+					} catch(RuntimeException e) {
+						failure.compareAndSet(null, e);
+					} finally {
+						close(document, failure);
+						inFlight.release();
+					}
+				});
+			}
+			//waits for the documents still being searched
+			inFlight.acquire(maxInFlight);
+			inFlight.release(maxInFlight);
+		} catch(InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException("search interrupted", e);
+		}
+		if(failure.get() != null) {
+			throw failure.get();
+		}
+
+		List<Hit> hits = new ArrayList<>(top);
+		hits.sort(Hit.RANKING);
+		return new Result(hits, searched, System.nanoTime() - start);
+	}
+
+	private static void close(Iterable<String> document, AtomicReference<RuntimeException> failure) {
+		if(document instanceof AutoCloseable) {
+			try {
+				((AutoCloseable) document).close();
+			} catch(Exception e) {
+				failure.compareAndSet(null, new RuntimeException("could not close document", e));
+			}
+		}
+	}
+
+	private static void offer(PriorityQueue<Hit> top, int k, Hit hit) {
+		synchronized(top) {
+			if(top.size() < k) {
+				top.add(hit);
+			} else if(Hit.RANKING.compare(hit, top.peek()) < 0) {
+				top.poll();
+				top.add(hit);
+			}
+		}
+	}
+
+	@Override
+	public void close() {
+		pool.shutdown();
+	}
+
+	/*
+	 * One document whose snippet made it into the top k.
+	 */
+	public static class Hit {
+		static final Comparator<Hit> RANKING = Comparator.<Hit>comparingInt(h -> h.snippet.getLength())
+				.thenComparingInt(h -> h.documentId);
+
+		private final int documentId;
+		private final MinimumSnippet snippet;
+
+		Hit(int documentId, MinimumSnippet snippet) {
+			this.documentId = documentId;
+			this.snippet = snippet;
+		}
+
+		public int getDocumentId() {
+			return documentId;
+		}
+
+		public MinimumSnippet getSnippet() {
+			return snippet;
+		}
+	}
+
+	/*
+	 * The ranked hits of one query, and how long the query took.
+	 */
+	public static class Result {
+		private final List<Hit> hits;
+		private final int documentsSearched;
+		private final long latencyNanos;
+
+		Result(List<Hit> hits, int documentsSearched, long latencyNanos) {
+			this.hits = Collections.unmodifiableList(hits);
+			this.documentsSearched = documentsSearched;
+			this.latencyNanos = latencyNanos;
+		}
+
+		public List<Hit> getHits() {
+			return hits;
+		}
+
+		public int getDocumentsSearched() {
+			return documentsSearched;
+		}
+
+		/*
+		 * Time from the start of the query until every document had been searched.
+		 */
+		public long getLatencyNanos() {
+			return latencyNanos;
+		}
+	}
+
+	/*
+	 * A file read as whitespace separated tokens, a token at a time. The file stays open from
+	 * iterator() until close(), which search() calls once the document has been searched.
+	 */
+	static class FileDocument implements Iterable<String>, Closeable {
+		private final Path file;
+		private Scanner scanner;
+
+		FileDocument(Path file) {
+			this.file = file;
+		}
+
+		@Override
+		public Iterator<String> iterator() {
+			close();
+			try {
+				scanner = new Scanner(file);
+			} catch(IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return scanner;
+		}
+
+		boolean isOpen() {
+			return scanner != null;
+		}
+
+		@Override
+		public void close() {
+			if(scanner != null) {
+				scanner.close();
+				scanner = null;
+			}
+		}
+	}
+
+	/*
+	 * Arguments: a directory of text files, k, then the query terms. Every file is a document.
+	 */
+	public static void main(String[] args) throws IOException {
+		List<Path> files;
+		try(Stream<Path> list = Files.list(Paths.get(args[0]))) {
+			files = list.filter(Files::isRegularFile).sorted().collect(Collectors.toList());
+		}
+		int k = Integer.parseInt(args[1]);
+		List<String> terms = Arrays.asList(args).subList(2, args.length);
+		try(CorpusSearch search = new CorpusSearch(Runtime.getRuntime().availableProcessors())) {
+			Result result = search.search(files.stream().map(FileDocument::new).iterator(), terms, k);
+			for(Hit hit : result.getHits()) {
+				MinimumSnippet s = hit.getSnippet();
+				System.out.println(files.get(hit.getDocumentId()) + ": length " + s.getLength() + " at "
+						+ s.getStartingPos() + "-" + s.getEndingPos());
+			}
+			System.out.printf("%d documents in %.1f ms%n", result.getDocumentsSearched(),
+					result.getLatencyNanos() / 1e6);
+		}
+	}
+}
@@ -0,0 +1,80 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/*
+ * A positional inverted index of one document: for every distinct token, the positions where
+ * it occurs, in increasing order. The document is read once when the index is built; after
+ * that each MinimumSnippet query only touches the posting lists of its own terms.
+ */
+public class DocumentIndex {
+
+	private final HashMap<String, int[]> postings = new HashMap<>();
+	private final int length;
+
+	/*
+	 * Reads the whole document and builds its posting lists.
+	 */
+	public DocumentIndex(Iterable<String> document) {
+		HashMap<String, PostingList> lists = new HashMap<>();
+		int position = 0;
+		for(String token : document) {
+			PostingList list = lists.get(token);
+			if(list == null) {
+				list = new PostingList();
+				lists.put(token, list);
+			}
+			list.add(position);
+			position++;
+		}
+		length = position;
+		for(Map.Entry<String, PostingList> entry : lists.entrySet()) {
+			PostingList list = entry.getValue();
+			postings.put(entry.getKey(), Arrays.copyOf(list.positions, list.size));
+		}
+	}
+
+	/*
+	 * Finds the shortest snippet of the document containing all of the terms.
+	 */
+	public MinimumSnippet minimumSnippet(List<String> terms) {
+		return new MinimumSnippet(this, terms);
+	}
+
+	/*
+	 * Number of tokens in the document.
+	 */
+	public int getLength() {
+		return length;
+	}
+
+	/*
+	 * Number of times the term occurs in the document.
+	 */
+	public int getFrequency(String term) {
+		int[] termPostings = postings.get(term);
+		return termPostings == null ? 0 : termPostings.length;
+	}
+
+	/*
+	 * The positions of the term in increasing order, or null if it does not occur.
+	 * The array is shared and must not be changed.
+	 */
+	int[] getPostings(String term) {
+		return postings.get(term);
+	}
+
+	private static class PostingList {
+		private int[] positions = new int[4];
+		private int size;
+
+		void add(int position) {
+			if(size == positions.length) {
+				positions = Arrays.copyOf(positions, size * 2);
+			}
+			positions[size++] = position;
+		}
+	}
+}
@@ -1,75 +1,114 @@
-import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.PriorityQueue;
 
 
 /*
  * This class is used to determine the minimum/shortest snippet from a document which 
  * contains all of the requested terms in any order. 
+ *
+ * Every distinct term gets an id, and the term occurrences are fed to a Window in document
+ * order: either by reading the document once, or by merging the term's posting lists from a
+ * DocumentIndex. The window keeps the occurrences it holds as a deque of (position, id) pairs
+ * together with a count of each id, so each occurrence costs O(1) whatever the number of terms.
  */
 public class MinimumSnippet {
 
-	ArrayList<String> orderTermsInSnippet;
-	ArrayList<Integer> finalPositionsOfTermsInDoc;
-	List<String> terms;
-	
+	int startingPos = -1;
+	int endingPos = -1;
+	int[] positionsOfTerms;
+
 	/*
 	 * Constructor for MinimumSnippet, determines what the minimum snippet is and provides
-	 * the class with the order of the terms in the snippet as well as their positions in the
-	 * original document.
+	 * the class with the positions in the original document of the terms in the snippet.
 	 */
 	public MinimumSnippet(Iterable<String> document, List<String> terms) {
-		if(terms.size() == 0) {
-			throw new IllegalArgumentException("terms param is empty");
-		}
-		
-		this.terms = terms;
-		
-		Iterator<String> documentIterator = document.iterator();
-		
-		//keeps track of what terms have been found in the current snippet
-		ArrayList<String> termsContained = new ArrayList<>(); 
-		
-		/*
-		 * Maintains a list of the positions in the original document of the 
-		 * terms that are in the current snippet
-		 */
-		ArrayList<Integer> termsPositions = new ArrayList<>();
-		
-		int iteratorPosition = -1;
-		
-		while(documentIterator.hasNext()) {
-			iteratorPosition ++;
-			String currentTerm = documentIterator.next();
-			
-			if(terms.contains(currentTerm)) {
-				termsContained.add(currentTerm);
-				termsPositions.add(iteratorPosition);
-				
-				//used to make sure the snippet is as short as viably possible
-				while(termsContained.lastIndexOf(termsContained.get(0)) != 0) {
-					termsContained.remove(0);
-					termsPositions.remove(0);
+		HashMap<String, Integer> termIds = new HashMap<>();
+		int[] idOfIndex = assignIds(terms, termIds);
+		Window window = new Window(termIds.size());
+
+		int position = -1;
+		for(String token : document) {
+			position++;
+			Integer id = termIds.get(token);
+			if(id != null) {
+				window.add(position, id);
+				if(window.isShortestPossible()) {
+					break;
 				}
 			}
-			
-			//makes sure snippet contains all terms and is viable
-			boolean allTermsContained = true;
-			for(String s : terms) {
-				if(!termsContained.contains(s)) {
-					allTermsContained = false;
-				}
+		}
+		finish(window, idOfIndex);
+	}
+
+	/*
+	 * Same result as the constructor above, using an index of the document instead of reading it.
+	 * Only the posting lists of the terms are read: they are merged in document order through a
+	 * min-heap holding the next posting of each term, so a query costs O(P log k) for P postings
+	 * of k distinct terms.
+	 */
+	public MinimumSnippet(DocumentIndex index, List<String> terms) {
+		HashMap<String, Integer> termIds = new HashMap<>();
+		int[] idOfIndex = assignIds(terms, termIds);
+		int distinctTerms = termIds.size();
+
+		int[][] postings = new int[distinctTerms][];
+		for(String term : termIds.keySet()) {
+			int[] termPostings = index.getPostings(term);
+			if(termPostings == null) {
+				return; //a term that is not in the document, nothing to find
 			}
-			
-			if(allTermsContained) {
-				//determines whether the newest viable snippet is shorter than the shortest so-far
-				if(finalPositionsOfTermsInDoc == null || 
-						getLength() > termsPositions.get(termsPositions.size() - 1) 
-						- termsPositions.get(0) + 1){
-					orderTermsInSnippet = termsContained;
-					finalPositionsOfTermsInDoc = termsPositions;
-				}
+			postings[termIds.get(term)] = termPostings;
+		}
+
+		int[] next = new int[distinctTerms];
+		PriorityQueue<Integer> heap = new PriorityQueue<>(distinctTerms,
+				(a, b) -> Integer.compare(postings[a][next[a]], postings[b][next[b]]));
+		for(int id = 0; id < distinctTerms; id++) {
+			heap.add(id);
+		}
+		Window window = new Window(distinctTerms);
+		while(!heap.isEmpty() && !window.isShortestPossible()) {
+			int id = heap.poll();
+			window.add(postings[id][next[id]], id);
+			if(++next[id] < postings[id].length) {
+				heap.add(id);
+			}
+		}
+		finish(window, idOfIndex);
+	}
+
+	/*
+	 * Gives every distinct term an id, in order of first appearance; a repeated term keeps its
+	 * first id. Returns the id of each index of terms.
+	 */
+	private static int[] assignIds(List<String> terms, HashMap<String, Integer> termIds) {
+		if(terms.size() == 0) {
+			throw new IllegalArgumentException("terms param is empty");
+		}
+		int[] idOfIndex = new int[terms.size()];
+		for(int i = 0; i < terms.size(); i++) {
+			Integer id = termIds.get(terms.get(i));
+			if(id == null) {
+				id = termIds.size();
+				termIds.put(terms.get(i), id);
 			}
+			idOfIndex[i] = id;
+		}
+		return idOfIndex;
+	}
+
+	private void finish(Window window, int[] idOfIndex) {
+		if(!window.found) {
+			return;
+		}
+		startingPos = window.bestStart;
+		endingPos = window.bestEnd;
+		int[] positionOfId = window.firstPositionsInBest();
+		positionsOfTerms = new int[idOfIndex.length];
+		for(int i = 0; i < idOfIndex.length; i++) {
+			positionsOfTerms[i] = positionOfId[idOfIndex[i]];
 		}
 	}
 
@@ -79,21 +118,21 @@ public class MinimumSnippet {
 
 	 */
 	public boolean foundAllTerms() {
-		return finalPositionsOfTermsInDoc != null;
+		return positionsOfTerms != null;
 	}
 
 	/*
 	 * Return the starting position of the snippet in the original document.
 	 */
 	public int getStartingPos() {
-		return finalPositionsOfTermsInDoc.get(0);
+		return startingPos;
 	}
 
 	/*
 	 * Returns the ending position of the snippet in the original document
 	 */
 	public int getEndingPos() {
-		return finalPositionsOfTermsInDoc.get(finalPositionsOfTermsInDoc.size() - 1);
+		return endingPos;
 	}
 
 	/*
@@ -109,7 +148,113 @@ public class MinimumSnippet {
 	 * If the index is one this method will return the position of the second search term provided.
 	 */
 	public int getPos(int index) {
-		return finalPositionsOfTermsInDoc.get(orderTermsInSnippet.indexOf(terms.get(index)));
+		return positionsOfTerms[index];
+	}
+
+	/*
+	 * The sliding window over the term occurrences, given in increasing position order, and the
+	 * shortest window holding every term seen so far. The first of equally short windows is kept.
+	 */
+	private static class Window {
+
+		/*
+		 * The deque: positions and ids of the term occurrences from index head up to size.
+		 * Occurrences before head have left the window and are dropped whenever the arrays fill
+		 * up, so the arrays only ever hold about twice the window.
+		 */
+		private int[] occurrencePos = new int[16];
+		private int[] occurrenceId = new int[16];
+		private int head;
+		private int size;
+
+		//number of occurrences of each term in the window, and of terms occurring at least once
+		private final int[] countInWindow;
+		private int termsInWindow;
+
+		/*
+		 * The shortest snippet so far. While its occurrences are still in the deque bestHead is
+		 * the index where it starts; before they are dropped the first position of each term in
+		 * it is copied to bestPositions and bestHead becomes -1.
+		 */
+		private boolean found;
+		private int bestHead = -1;
+		private int bestStart;
+		private int bestEnd;
+		private final int[] bestPositions;
+
+		Window(int distinctTerms) {
+			countInWindow = new int[distinctTerms];
+			bestPositions = new int[distinctTerms];
+		}
+
+		void add(int position, int id) {
+			if(size == occurrencePos.length) {
+				if(head > size / 2) {
+					//drops the occurrences that have left the window
+					if(bestHead >= 0 && bestHead < head) {
+						resolveBest();
+					}
+					System.arraycopy(occurrencePos, head, occurrencePos, 0, size - head);
+					System.arraycopy(occurrenceId, head, occurrenceId, 0, size - head);
+					size -= head;
+					if(bestHead >= 0) {
+						bestHead -= head;
+					}
+					head = 0;
+				} else {
+					occurrencePos = Arrays.copyOf(occurrencePos, size * 2);
+					occurrenceId = Arrays.copyOf(occurrenceId, size * 2);
+				}
+			}
+			occurrencePos[size] = position;
+			occurrenceId[size] = id;
+			size++;
+			if(countInWindow[id]++ == 0) {
+				termsInWindow++;
+			}
+
+			//used to make sure the snippet is as short as viably possible
+			while(countInWindow[occurrenceId[head]] > 1) {
+				countInWindow[occurrenceId[head]]--;
+				head++;
+			}
+
+			//the window is a viable snippet, keep it if it is shorter than the shortest so-far
+			if(termsInWindow == countInWindow.length
+					&& (!found || bestEnd - bestStart > position - occurrencePos[head])) {
+				found = true;
+				bestHead = head;
+				bestStart = occurrencePos[head];
+				bestEnd = position;
+			}
+		}
+
+		/*
+		 * True once a snippet with one token per term has been found, nothing can be shorter.
+		 */
+		boolean isShortestPossible() {
+			return found && bestEnd - bestStart + 1 == countInWindow.length;
+		}
+
+		/*
+		 * The first position of each term id inside the best snippet.
+		 */
+		int[] firstPositionsInBest() {
+			if(bestHead >= 0) {
+				resolveBest();
+			}
+			return bestPositions;
+		}
+
+		private void resolveBest() {
+			Arrays.fill(bestPositions, -1);
+			for(int i = bestHead; i < size && occurrencePos[i] <= bestEnd; i++) {
+				if(bestPositions[occurrenceId[i]] < 0) {
+					bestPositions[occurrenceId[i]] = occurrencePos[i];
+				}
+			}
+			bestHead = -1;
+		}
 	}
 
 }
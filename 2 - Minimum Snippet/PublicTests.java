@@ -1,6 +1,10 @@
 import org.junit.Test;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 
 import junit.framework.TestCase;
 
@@ -73,4 +77,88 @@ public class PublicTests  extends TestCase {
 		assertEquals(3, m.getPos(0));
 		assertEquals(5, m.getPos(1));
 	}
+	
+	/* Test that the first of two equally short snippets is kept */
+	@Test
+	public void testFirstShortestKept() {
+		MinimumSnippet m = get(new String[] {"a", "x", "x", "b", "a", "b"}, new String[] {"a", "b"} );
+		assertTrue(m.foundAllTerms());
+		assertEquals(3, m.getStartingPos());
+		assertEquals(4, m.getEndingPos());
+		assertEquals(2, m.getLength());
+		assertEquals(4, m.getPos(0));
+		assertEquals(3, m.getPos(1));
+	}
+	
+	/* Test that queries on a DocumentIndex find the same snippets as reading the document */
+	@Test
+	public void testIndexMatchesScan() {
+		String[] doc = {"1", "2", "2", "3", "2", "1"};
+		DocumentIndex index = new DocumentIndex(Arrays.asList(doc));
+		assertEquals(6, index.getLength());
+		assertEquals(3, index.getFrequency("2"));
+		MinimumSnippet m = index.minimumSnippet(Arrays.asList("1", "3"));
+		assertTrue(m.foundAllTerms());
+		assertEquals(3, m.getStartingPos());
+		assertEquals(5, m.getEndingPos());
+		assertEquals(5, m.getPos(0));
+		assertEquals(3, m.getPos(1));
+		assertFalse(index.minimumSnippet(Arrays.asList("1", "x")).foundAllTerms());
+	}
+	
+	/* Test that corpus search ranks documents by snippet length, then by document order */
+	@Test
+	public void testCorpusSearchTopK() {
+		List<List<String>> docs = Arrays.asList(
+				Arrays.asList("1", "x", "x", "3"),
+				Arrays.asList("x", "x"),
+				Arrays.asList("3", "1"),
+				Arrays.asList("1", "x", "3"),
+				Arrays.asList("1", "3"));
+		CorpusSearch search = new CorpusSearch(2);
+		CorpusSearch.Result result = search.search(docs.iterator(), Arrays.asList("1", "3"), 3);
+		search.close();
+		assertEquals(5, result.getDocumentsSearched());
+		assertEquals(3, result.getHits().size());
+		assertEquals(2, result.getHits().get(0).getDocumentId());
+		assertEquals(4, result.getHits().get(1).getDocumentId());
+		assertEquals(3, result.getHits().get(2).getDocumentId());
+		assertEquals(3, result.getHits().get(2).getSnippet().getLength());
+	}
+	
+	/* Test that an early snippet is still reported after many later term occurrences */
+	@Test
+	public void testEarlySnippetInLongDocument() {
+		ArrayList<String> doc = new ArrayList<String>(Arrays.asList("a", "b", "x", "c"));
+		for (int i = 0; i < 1000; i++) {
+			doc.addAll(Arrays.asList("a", "x", "x", "x", "b", "x", "x", "x", "c"));
+		}
+		MinimumSnippet m = new MinimumSnippet(doc, Arrays.asList("c", "a", "b"));
+		assertTrue(m.foundAllTerms());
+		assertEquals(0, m.getStartingPos());
+		assertEquals(3, m.getEndingPos());
+		assertEquals(3, m.getPos(0));
+		assertEquals(0, m.getPos(1));
+		assertEquals(1, m.getPos(2));
+	}
+	
+	/* Test that corpus search closes every file, also when a snippet is found before the end */
+	@Test
+	public void testCorpusSearchClosesFiles() throws Exception {
+		List<CorpusSearch.FileDocument> docs = new ArrayList<CorpusSearch.FileDocument>();
+		for (int i = 0; i < 20; i++) {
+			Path file = Files.createTempFile("snippet", ".txt");
+			file.toFile().deleteOnExit();
+			Files.write(file, Arrays.asList("1 3 x x 1 x 3"));
+			docs.add(new CorpusSearch.FileDocument(file));
+		}
+		CorpusSearch search = new CorpusSearch(2);
+		CorpusSearch.Result result = search.search(docs.iterator(), Arrays.asList("1", "3"), 5);
+		search.close();
+		assertEquals(5, result.getHits().size());
+		assertEquals(2, result.getHits().get(0).getSnippet().getLength());
+		for (CorpusSearch.FileDocument doc : docs) {
+			assertFalse(doc.isOpen());
+		}
+	}
 }